@@ -0,0 +1,146 @@
+package com.scorevo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scorevo.model.Activity;
+import com.scorevo.model.Score;
+import com.scorevo.model.User;
+import com.scorevo.payload.response.ActivityDTO;
+import com.scorevo.payload.response.ScoreDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning loaded entities into response bodies: {@code ScoreDTO.fromScore} over
+ * a history page, and {@code ActivityDTO} assembly as ActivityController does it for the
+ * activity list, each on its own and followed by Jackson serialization. The mapper is
+ * built like Spring Boot's, so dates are written as ISO strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    @Param({"20", "500"})
+    private int scores;
+
+    @Param({"10"})
+    private int activities;
+
+    @Param({"5", "100"})
+    private int participants;
+
+    private ObjectMapper objectMapper;
+    private List<Score> scoreEntities;
+    private List<Activity> activityEntities;
+    private List<List<User>> participantsByActivity;
+    private List<ScoreDTO> scoreDTOs;
+    private List<ActivityDTO> activityDTOs;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<User> users = new ArrayList<>(participants);
+        for (int i = 0; i < participants; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            users.add(user);
+        }
+
+        activityEntities = new ArrayList<>(activities);
+        participantsByActivity = new ArrayList<>(activities);
+        for (int i = 0; i < activities; i++) {
+            Activity activity = new Activity();
+            activity.setId((long) i + 1);
+            activity.setName("Activity " + i);
+            activity.setDescription("Benchmark activity number " + i);
+            activity.setMode(i % 2 == 0 ? Activity.ActivityMode.FREE_INCREMENT : Activity.ActivityMode.PENALTY_BALANCE);
+            activity.setCreatedAt(start.plusDays(i));
+            activityEntities.add(activity);
+            participantsByActivity.add(users);
+        }
+
+        scoreEntities = new ArrayList<>(scores);
+        for (int i = 0; i < scores; i++) {
+            Score score = new Score();
+            score.setId((long) i + 1);
+            score.setActivity(activityEntities.get(0));
+            score.setUser(users.get(random.nextInt(participants)));
+            score.setPoints(random.nextInt(-5, 10));
+            score.setTimestamp(start.plusSeconds(i));
+            scoreEntities.add(score);
+        }
+
+        scoreDTOs = scoreDTOs();
+        activityDTOs = activityDTOs();
+    }
+
+    @Benchmark
+    public List<ScoreDTO> scoreDTOs() {
+        List<ScoreDTO> dtos = new ArrayList<>(scoreEntities.size());
+        for (Score score : scoreEntities) {
+            dtos.add(ScoreDTO.fromScore(score));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] scoreDTOsToJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(scoreDTOs());
+    }
+
+    @Benchmark
+    public byte[] serializeScoreDTOs() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(scoreDTOs);
+    }
+
+    @Benchmark
+    public List<ActivityDTO> activityDTOs() {
+        List<ActivityDTO> dtos = new ArrayList<>(activityEntities.size());
+        for (int i = 0; i < activityEntities.size(); i++) {
+            Activity activity = activityEntities.get(i);
+            ActivityDTO dto = new ActivityDTO();
+            dto.setId(activity.getId());
+            dto.setName(activity.getName());
+            dto.setDescription(activity.getDescription());
+            dto.setMode(activity.getMode());
+            dto.setCreatedAt(activity.getCreatedAt());
+
+            List<ActivityDTO.ParticipantDTO> participantDTOs = new ArrayList<>();
+            for (User user : participantsByActivity.get(i)) {
+                ActivityDTO.ParticipantDTO participantDTO = new ActivityDTO.ParticipantDTO();
+                participantDTO.setId(user.getId());
+                participantDTO.setUsername(user.getUsername());
+                participantDTO.setEmail(user.getEmail());
+                participantDTOs.add(participantDTO);
+            }
+            dto.setParticipants(participantDTOs);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] activityDTOsToJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(activityDTOs());
+    }
+
+    @Benchmark
+    public byte[] serializeActivityDTOs() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(activityDTOs);
+    }
+}
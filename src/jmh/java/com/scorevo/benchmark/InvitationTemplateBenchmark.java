@@ -0,0 +1,76 @@
+package com.scorevo.benchmark;
+
+import com.scorevo.model.Activity;
+import com.scorevo.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering the activity-invitation email, with the template engine set up
+ * like Spring Boot's (classpath templates/, SpringEL). With {@code cacheable} the
+ * parsed template is reused as in production; without it every render re-reads and
+ * re-parses the file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvitationTemplateBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cacheable;
+
+    private SpringTemplateEngine templateEngine;
+    private Activity activity;
+    private User inviter;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(cacheable);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        activity = new Activity();
+        activity.setId(1L);
+        activity.setName("Office ping-pong");
+        activity.setDescription("Weekly ladder, loser buys coffee.");
+        activity.setMode(Activity.ActivityMode.PENALTY_BALANCE);
+
+        inviter = new User();
+        inviter.setId(1L);
+        inviter.setUsername("inviter");
+    }
+
+    @Benchmark
+    public String existingUser() {
+        return render(true, "https://scorevo.example/invitations/accept/0f8fad5b-d9cb-469f-a165-70867728950e");
+    }
+
+    @Benchmark
+    public String newUser() {
+        return render(false, "https://scorevo.example/auth/register?invitation=0f8fad5b-d9cb-469f-a165-70867728950e");
+    }
+
+    private String render(boolean isExistingUser, String invitationLink) {
+        Context context = new Context();
+        context.setVariable("activity", activity);
+        context.setVariable("inviter", inviter);
+        context.setVariable("isExistingUser", isExistingUser);
+        context.setVariable("invitationLink", invitationLink);
+        return templateEngine.process("activity-invitation", context);
+    }
+}
@@ -0,0 +1,60 @@
+package com.scorevo.benchmark;
+
+import com.scorevo.security.jwt.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication: JwtAuthenticationFilter validates the bearer token
+ * and then parses it again for the username. {@code filterPath} measures the two
+ * together, as every authenticated request pays them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[32];
+        for (int i = 0; i < secret.length; i++) {
+            secret[i] = (byte) (i * 31 + 7);
+        }
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", Base64.getEncoder().encodeToString(secret));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+
+        UserDetails principal = new User("benchmark-user", "", List.of());
+        token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromJwtToken() {
+        return jwtUtils.getUsernameFromJwtToken(token);
+    }
+
+    @Benchmark
+    public String filterPath() {
+        return jwtUtils.validateJwtToken(token) ? jwtUtils.getUsernameFromJwtToken(token) : null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.scorevo.benchmark;
+
+import com.scorevo.cache.MembershipCache;
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.model.User;
+import com.scorevo.repository.ActivityRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM-side cost of one membership check on a large activity. {@code streamParticipants}
+ * is the original scan over the loaded participant entities (the load itself, one query
+ * plus hydrating every User, is not measured). {@code membershipCache} is a warm
+ * MembershipCache hit: an LRU lookup and a binary search over sorted user ids.
+ * Half of the checked ids are members.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MembershipCheckBenchmark {
+
+    private static final long ACTIVITY_ID = 1L;
+    private static final int PROBES = 1024;
+
+    @Param({"50", "5000"})
+    private int participants;
+
+    private Set<User> participantEntities;
+    private MembershipCache membershipCache;
+    private long[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        participantEntities = new HashSet<>();
+        List<Long> memberIds = new ArrayList<>(participants);
+        // Members get even ids, so odd probes miss
+        for (int i = 0; i < participants; i++) {
+            User user = new User();
+            user.setId(2L * i);
+            user.setUsername("user" + i);
+            participantEntities.add(user);
+            memberIds.add(user.getId());
+        }
+
+        // Only the two queries MembershipCache makes are answered
+        ActivityRepository repository = (ActivityRepository) Proxy.newProxyInstance(
+                ActivityRepository.class.getClassLoader(), new Class<?>[]{ActivityRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findParticipantIds" -> memberIds;
+                    case "existsByIdAndParticipantsId" -> memberIds.contains((Long) args[1]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        membershipCache = new MembershipCache(repository, new PrimaryReads(), 10_000, 100_000);
+        membershipCache.isMember(ACTIVITY_ID, 0L);
+
+        probes = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = random.nextLong(2L * participants);
+        }
+    }
+
+    private long nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return probes[next];
+    }
+
+    @Benchmark
+    public boolean streamParticipants() {
+        Long userId = nextProbe();
+        return participantEntities.stream().anyMatch(participant -> participant.getId().equals(userId));
+    }
+
+    @Benchmark
+    public boolean membershipCache() {
+        return membershipCache.isMember(ACTIVITY_ID, nextProbe());
+    }
+}
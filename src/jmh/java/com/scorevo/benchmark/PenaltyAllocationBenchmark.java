@@ -0,0 +1,75 @@
+package com.scorevo.benchmark;
+
+import com.scorevo.penalty.PenaltyAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM-side cost of allocating one PENALTY_BALANCE penalty against the balances of
+ * large activities. {@code hashOrderLoop} is the original walk over the participants
+ * in HashSet order; the allocator benchmarks run each policy on the same balances.
+ * A small penalty reaches a few balances, a large one most of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PenaltyAllocationBenchmark {
+
+    @Param({"1000", "5000", "20000"})
+    private int participants;
+
+    @Param({"10", "100000"})
+    private int points;
+
+    @Param({"LARGEST_FIRST", "OLDEST_FIRST", "PROPORTIONAL"})
+    private PenaltyAllocator.Policy policy;
+
+    private PenaltyAllocator allocator;
+    private List<PenaltyAllocator.Candidate> candidates;
+    private Map<Long, Integer> balances;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        allocator = new PenaltyAllocator(policy);
+        candidates = new ArrayList<>(participants);
+        balances = new HashMap<>();
+        for (int i = 0; i < participants; i++) {
+            int balance = random.nextInt(1, 50);
+            candidates.add(new PenaltyAllocator.Candidate(i + 1, balance, start.plusSeconds(random.nextInt(86_400))));
+            balances.put((long) i + 1, balance);
+        }
+    }
+
+    @Benchmark
+    public PenaltyAllocator.Allocation allocator() {
+        return allocator.allocate(points, candidates);
+    }
+
+    @Benchmark
+    public int hashOrderLoop() {
+        int remaining = points;
+        List<PenaltyAllocator.Offset> offsets = new ArrayList<>();
+        for (Map.Entry<Long, Integer> balance : balances.entrySet()) {
+            if (remaining <= 0) {
+                break;
+            }
+            int amount = Math.min(balance.getValue(), remaining);
+            offsets.add(new PenaltyAllocator.Offset(balance.getKey(), amount));
+            remaining -= amount;
+        }
+        return offsets.size() + remaining;
+    }
+}
@@ -0,0 +1,106 @@
+package com.scorevo.benchmark;
+
+import com.scorevo.model.Activity;
+import com.scorevo.payload.response.ActivityDTO;
+import com.scorevo.payload.response.ActivitySearchHitDTO;
+import com.scorevo.payload.response.UserSearchHitDTO;
+import com.scorevo.repository.ActivityRepository;
+import com.scorevo.repository.UserRepository;
+import com.scorevo.search.SearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead latency of the in-memory search index: 100,000 users and 20,000 activities
+ * with generated names, each user in about 20 activities. Queries are typed prefixes of
+ * one to five characters, the searcher being a random user.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int ACTIVITIES = 20_000;
+    private static final int MEMBERS_PER_ACTIVITY = 100;
+    private static final int PROBES = 1024;
+
+    private static final String[] WORDS = {
+            "friday", "league", "darts", "chess", "office", "poker", "running", "club", "cup", "weekly",
+            "pool", "table", "tennis", "quiz", "night", "family", "kart", "squash", "bowling", "trivia"};
+
+    @Param({"1", "2", "3", "5"})
+    private int queryLength;
+
+    private SearchIndex searchIndex;
+    private String[] queries;
+    private long[] searchers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        List<ActivityDTO> activities = new ArrayList<>(ACTIVITIES);
+        List<Object[]> members = new ArrayList<>(ACTIVITIES * MEMBERS_PER_ACTIVITY);
+        for (long id = 1; id <= ACTIVITIES; id++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            activities.add(new ActivityDTO(id, name, "The " + WORDS[random.nextInt(WORDS.length)] + " group",
+                    Activity.ActivityMode.FREE_INCREMENT, LocalDateTime.now(), LocalDateTime.now()));
+            for (int m = 0; m < MEMBERS_PER_ACTIVITY; m++) {
+                members.add(new Object[]{id, 1 + random.nextLong(USERS)});
+            }
+        }
+        List<Object[]> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            String username = WORDS[random.nextInt(WORDS.length)] + "_" + id;
+            users.add(new Object[]{id, username, username + "@example.com"});
+        }
+
+        // Only the queries a rebuild makes are answered
+        ActivityRepository activityRepository = (ActivityRepository) Proxy.newProxyInstance(
+                ActivityRepository.class.getClassLoader(), new Class<?>[]{ActivityRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllParticipantPairs" -> members;
+                    case "findAllActivityDTOs" -> activities;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllSearchRows" -> users;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        searchIndex = new SearchIndex(activityRepository, userRepository);
+        searchIndex.rebuild();
+
+        queries = new String[PROBES];
+        searchers = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            queries[i] = word.substring(0, Math.min(queryLength, word.length()));
+            searchers[i] = 1 + random.nextLong(USERS);
+        }
+    }
+
+    @Benchmark
+    public List<ActivitySearchHitDTO> searchActivities() {
+        next = (next + 1) & (PROBES - 1);
+        return searchIndex.searchActivities(queries[next], searchers[next], 10);
+    }
+
+    @Benchmark
+    public List<UserSearchHitDTO> searchUsers() {
+        next = (next + 1) & (PROBES - 1);
+        return searchIndex.searchUsers(queries[next], searchers[next], 10);
+    }
+}
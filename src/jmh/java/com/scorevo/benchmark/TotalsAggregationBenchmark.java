@@ -0,0 +1,115 @@
+package com.scorevo.benchmark;
+
+import com.scorevo.model.Activity;
+import com.scorevo.model.Score;
+import com.scorevo.model.User;
+import com.scorevo.util.LongIntHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JVM-side cost of computing per-user totals for an activity.
+ * <p>
+ * {@code hydratedEntities} is what the service did originally: one Score entity per
+ * history row, grouped with Collectors. {@code primitiveFold} keeps every row but folds
+ * scalars into a LongIntHashMap. {@code databaseProjection} is what is left for the JVM
+ * once the database runs the GROUP BY: one [userId, sum] row per user. The database
+ * scan itself is not measured here. Run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotalsAggregationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"50"})
+    private int users;
+
+    private Activity activity;
+    private User[] participants;
+    private int[] rowUser;
+    private int[] rowPoints;
+    private List<Object[]> groupedRows;
+    private LocalDateTime timestamp;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        activity = new Activity();
+        activity.setId(1L);
+        activity.setName("Benchmark");
+        activity.setMode(Activity.ActivityMode.FREE_INCREMENT);
+
+        participants = new User[users];
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setUsername("user" + i);
+            participants[i] = user;
+        }
+
+        rowUser = new int[rows];
+        rowPoints = new int[rows];
+        long[] sums = new long[users];
+        for (int i = 0; i < rows; i++) {
+            rowUser[i] = random.nextInt(users);
+            rowPoints[i] = random.nextInt(1, 10);
+            sums[rowUser[i]] += rowPoints[i];
+        }
+
+        groupedRows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            groupedRows.add(new Object[]{participants[i].getId(), sums[i]});
+        }
+        timestamp = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public Map<Long, Integer> hydratedEntities() {
+        List<Score> scores = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Score score = new Score();
+            score.setId((long) i);
+            score.setActivity(activity);
+            score.setUser(participants[rowUser[i]]);
+            score.setPoints(rowPoints[i]);
+            score.setTimestamp(timestamp);
+            scores.add(score);
+        }
+        return scores.stream()
+                .collect(Collectors.groupingBy(
+                        score -> score.getUser().getId(),
+                        Collectors.summingInt(Score::getPoints)
+                ));
+    }
+
+    @Benchmark
+    public LongIntHashMap primitiveFold() {
+        LongIntHashMap totals = new LongIntHashMap(users);
+        for (int i = 0; i < rows; i++) {
+            totals.addTo(participants[rowUser[i]].getId(), rowPoints[i]);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public LongIntHashMap databaseProjection() {
+        LongIntHashMap totals = new LongIntHashMap(groupedRows.size());
+        for (Object[] row : groupedRows) {
+            totals.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,253 @@
+package com.scorevo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the weighted operation mix against a running server from inside the JVM.
+ * <p>
+ * In closed-loop mode each worker sends its next request when the previous one
+ * returns, so latency is measured from send to response and the offered load drops
+ * when the server slows down. In open-loop mode requests start on a fixed schedule
+ * and latency is measured from the time a request was due, so queueing behind a
+ * slow server shows up in the percentiles instead of being hidden
+ * (no coordinated omission).
+ * <p>
+ * Latencies are recorded in nanoseconds and collected into one histogram per
+ * operation and second once the warmup is over.
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestSettings settings;
+    private final SeedData seedData;
+    private final String baseUrl;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final HttpClient httpClient;
+    private final ExecutorService clientExecutor;
+
+    private volatile long recordFrom;
+
+    public LoadGenerator(LoadTestSettings settings, SeedData seedData, String baseUrl) {
+        this.settings = settings;
+        this.seedData = seedData;
+        this.baseUrl = baseUrl;
+
+        this.operations = settings.mix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += settings.mix().get(operations[i]);
+            cumulativeWeights[i] = sum;
+            recorders.put(operations[i], new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operations[i], new LongAdder());
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.clientExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        LoadTestReport report = new LoadTestReport(settings, errors);
+        long start = System.nanoTime();
+        recordFrom = start + settings.warmup().toNanos();
+        long end = recordFrom + settings.duration().toNanos();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The Recorder stamps each interval with wall-clock times, so logs line up with server logs
+        sampler.scheduleAtFixedRate(() -> sample(report),
+                settings.warmup().toNanos(), TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS);
+
+        logger.info("Running {} load: {} warmup, {} recorded, mix {}", settings.mode(),
+                settings.warmup(), settings.duration(), settings.mix());
+        try {
+            if (settings.mode() == LoadTestSettings.Mode.CLOSED) {
+                runClosedLoop(end);
+            } else {
+                runOpenLoop(start, end);
+            }
+        } finally {
+            sampler.shutdown();
+            sampler.awaitTermination(5, TimeUnit.SECONDS);
+            sample(report);
+            clientExecutor.shutdownNow();
+        }
+        return report;
+    }
+
+    private void runClosedLoop(long end) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(settings.concurrency());
+        for (int i = 0; i < settings.concurrency(); i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    Operation operation = nextOperation();
+                    HttpRequest request = buildRequest(operation);
+                    long sentAt = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        record(operation, sentAt, response.statusCode());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        recordFailure(operation, sentAt, e);
+                    }
+                }
+            }, "loadtest-worker-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void runOpenLoop(long start, long end) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        LongAdder inFlight = new LongAdder();
+
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = nextOperation();
+            long intendedAt = due;
+            inFlight.increment();
+            httpClient.sendAsync(buildRequest(operation), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure != null) {
+                            recordFailure(operation, intendedAt, failure);
+                        } else {
+                            record(operation, intendedAt, response.statusCode());
+                        }
+                        inFlight.decrement();
+                    });
+        }
+
+        // Let the stragglers finish so the last second is not cut short
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.sum() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void record(Operation operation, long startedAt, int status) {
+        if (startedAt < recordFrom) {
+            return;
+        }
+        recorders.get(operation).recordValue(
+                Math.min(System.nanoTime() - startedAt, HIGHEST_TRACKABLE_NANOS));
+        if (status >= 400) {
+            errors.get(operation).increment();
+        }
+    }
+
+    private void recordFailure(Operation operation, long startedAt, Throwable failure) {
+        if (startedAt < recordFrom) {
+            return;
+        }
+        errors.get(operation).increment();
+        logger.debug("{} failed: {}", operation, failure.getMessage());
+    }
+
+    private void sample(LoadTestReport report) {
+        for (Operation operation : operations) {
+            Histogram interval = recorders.get(operation).getIntervalHistogram();
+            interval.setTag(operation.key());
+            report.addInterval(operation, interval);
+        }
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private HttpRequest buildRequest(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SeedData.SeededActivity activity = seedData.activities().get(random.nextInt(seedData.activities().size()));
+        SeedData.SeededUser actor = seedData.users().get(activity.participants()[random.nextInt(activity.participants().length)]);
+
+        return switch (operation) {
+            case SIGNIN -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"email\":\"" + actor.email() + "\",\"password\":\"" + LoadTestSeeder.PASSWORD + "\"}"))
+                    .build();
+            case LIST_ACTIVITIES -> authorized(actor, "/api/activities").GET().build();
+            case ADD_SCORE -> {
+                SeedData.SeededUser scorer = seedData.users().get(
+                        activity.participants()[random.nextInt(activity.participants().length)]);
+                yield authorized(actor, "/api/activities/" + activity.id() + "/scores")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"userId\":" + scorer.id() + ",\"points\":" + random.nextInt(1, 6) + "}"))
+                        .build();
+            }
+            case READ_TOTALS -> authorized(actor, "/api/activities/" + activity.id() + "/scores/totals").GET().build();
+            case INVITE -> {
+                SeedData.SeededUser invitee = seedData.users().get(random.nextInt(seedData.users().size()));
+                String email = URLEncoder.encode(invitee.email(), StandardCharsets.UTF_8);
+                yield authorized(actor, "/api/activities/" + activity.id() + "/participants/email?email=" + email)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+            }
+        };
+    }
+
+    private HttpRequest.Builder authorized(SeedData.SeededUser actor, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + actor.token());
+    }
+}
@@ -0,0 +1,118 @@
+package com.scorevo.loadtest;
+
+import com.scorevo.ScorevoApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import jakarta.mail.internet.MimeMessage;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots Scorevo on an in-memory H2 database in MySQL mode, seeds it, drives it over
+ * HTTP with {@link LoadGenerator} and writes per-endpoint latency histograms.
+ * <p>
+ * Run with {@code mvn -Ploadtest verify}. The profile forwards every {@code loadtest.*}
+ * property to the forked JVM, so settings are passed as {@code -Dloadtest.mode=open},
+ * see {@link LoadTestSettings}. When running this class directly, the application
+ * defaults below can be overridden as usual, e.g. {@code --server.port=8080}.
+ */
+public class LoadTestApplication {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestApplication.class);
+
+    public static void main(String[] args) throws Exception {
+        // The devtools restart classloader is for editing sessions and skews measurements
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ScorevoApplication.class, LoadTestConfig.class)
+                .properties(defaultProperties())
+                .run(args);
+        int exitCode = 0;
+        try {
+            Environment environment = context.getEnvironment();
+            LoadTestSettings settings = LoadTestSettings.from(environment);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            SeedData seedData = context.getBean(LoadTestSeeder.class).seed(settings);
+            logger.info("Seeded {} users and {} activities", seedData.users().size(), seedData.activities().size());
+
+            LoadGenerator generator = new LoadGenerator(settings, seedData, "http://localhost:" + port);
+            LoadTestReport report = generator.run();
+
+            Path output = Path.of(settings.output());
+            report.writeHistogramLog(output);
+            report.print(System.out);
+            logger.info("Latency histograms written to {}", output.toAbsolutePath());
+        } catch (Exception e) {
+            logger.error("Load test failed: {}", e.getMessage(), e);
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static Map<String, Object> defaultProperties() {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+
+        // Only defaults: anything passed on the command line or as -D wins
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.open-in-view", "true");
+        properties.put("spring.datasource.hikari.maximum-pool-size", "32");
+        properties.put("server.port", "0");
+        properties.put("server.tomcat.threads.max", "200");
+        properties.put("jwt.secret", Base64.getEncoder().encodeToString(secret));
+        properties.put("scorevo.app.jwtExpirationMs", String.valueOf(Duration.ofHours(24).toMillis()));
+        properties.put("app.frontend.url", "http://localhost:4200");
+        properties.put("spring.mail.from", "loadtest@scorevo.local");
+        properties.put("scorevo.compaction.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.scorevo.loadtest", "INFO");
+        return properties;
+    }
+
+    /**
+     * Extra sources for the load-test context. Deliberately not a @Configuration,
+     * so the application's component scan of com.scorevo does not pick it up twice.
+     */
+    static class LoadTestConfig {
+
+        // Invitation emails are rendered as usual but never leave the JVM, so the
+        // invite endpoint measures the application rather than an SMTP server
+        @Bean
+        public JavaMailSender javaMailSender() {
+            return new JavaMailSenderImpl() {
+                @Override
+                public void send(MimeMessage... mimeMessages) {
+                }
+
+                @Override
+                public void send(MimeMessagePreparator... mimeMessagePreparators) {
+                }
+            };
+        }
+
+        @Bean
+        public LoadTestSeeder loadTestSeeder() {
+            return new LoadTestSeeder();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.scorevo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency intervals of one run. The HdrHistogram log holds every
+ * one-second interval tagged with the operation key, so it can be replayed with
+ * HistogramLogProcessor (e.g. {@code -tag score}) or plotted; the printed summary
+ * folds the intervals together.
+ */
+public class LoadTestReport {
+
+    private final LoadTestSettings settings;
+    private final Map<Operation, LongAdder> errors;
+    private final Map<Operation, List<Histogram>> intervals = new EnumMap<>(Operation.class);
+
+    LoadTestReport(LoadTestSettings settings, Map<Operation, LongAdder> errors) {
+        this.settings = settings;
+        this.errors = errors;
+    }
+
+    synchronized void addInterval(Operation operation, Histogram interval) {
+        List<Histogram> operationIntervals = intervals.get(operation);
+        if (operationIntervals == null && interval.getTotalCount() == 0) {
+            // Nothing recorded yet: this is the warmup tail
+            return;
+        }
+        intervals.computeIfAbsent(operation, key -> new ArrayList<>()).add(interval);
+    }
+
+    public synchronized void writeHistogramLog(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (PrintStream stream = new PrintStream(Files.newOutputStream(output))) {
+            HistogramLogWriter writer = new HistogramLogWriter(stream);
+            writer.outputComment("Scorevo load test: " + settings.mode() + " loop, mix " + settings.mix()
+                    + ", latencies in nanoseconds");
+            writer.outputLogFormatVersion();
+            long startTime = intervals.values().stream()
+                    .flatMap(List::stream)
+                    .mapToLong(Histogram::getStartTimeStamp)
+                    .min().orElse(System.currentTimeMillis());
+            writer.outputStartTime(startTime);
+            writer.setBaseTime(startTime);
+            writer.outputLegend();
+            for (List<Histogram> operationIntervals : intervals.values()) {
+                for (Histogram interval : operationIntervals) {
+                    writer.outputIntervalHistogram(interval);
+                }
+            }
+        }
+    }
+
+    public synchronized void print(PrintStream out) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        out.printf("%n%-46s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Max ms");
+        for (Map.Entry<Operation, List<Histogram>> entry : intervals.entrySet()) {
+            Histogram total = new Histogram(3);
+            entry.getValue().forEach(total::add);
+            out.printf("%-46s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().endpoint(),
+                    total.getTotalCount(),
+                    errors.get(entry.getKey()).sum(),
+                    total.getTotalCount() / seconds,
+                    millis(total.getValueAtPercentile(50)),
+                    millis(total.getValueAtPercentile(90)),
+                    millis(total.getValueAtPercentile(99)),
+                    millis(total.getValueAtPercentile(99.9)),
+                    millis(total.getMaxValue()));
+        }
+        out.println();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.scorevo.loadtest;
+
+import com.scorevo.model.Activity;
+import com.scorevo.model.Role;
+import com.scorevo.model.User;
+import com.scorevo.repository.ActivityRepository;
+import com.scorevo.repository.RoleRepository;
+import com.scorevo.repository.UserRepository;
+import com.scorevo.security.jwt.JwtUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds users and activities straight through the repositories. Participants are
+ * drawn with a fixed seed, so runs with the same settings hit the same data.
+ */
+public class LoadTestSeeder {
+
+    public static final String PASSWORD = "loadtest-password";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Transactional
+    public SeedData seed(LoadTestSettings settings) {
+        Role userRole = roleRepository.findByName(Role.RoleType.ROLE_USER)
+                .orElseThrow(() -> new IllegalStateException("Roles are not initialized"));
+        // One hash for everyone: hashing is deliberately slow and signin measures it anyway
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+
+        List<User> users = new ArrayList<>(settings.users());
+        for (int i = 0; i < settings.users(); i++) {
+            User user = new User();
+            user.setUsername("load" + i);
+            user.setEmail("load" + i + "@scorevo.local");
+            user.setPassword(encodedPassword);
+            user.setRoles(new HashSet<>(Set.of(userRole)));
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+
+        List<SeedData.SeededUser> seededUsers = new ArrayList<>(users.size());
+        for (User user : users) {
+            UserDetails principal = org.springframework.security.core.userdetails.User
+                    .withUsername(user.getUsername()).password("").authorities(List.of()).build();
+            String token = jwtUtils.generateJwtToken(
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+            seededUsers.add(new SeedData.SeededUser(user.getId(), user.getEmail(), token));
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Activity> activities = new ArrayList<>(settings.activities());
+        List<int[]> participantsByActivity = new ArrayList<>(settings.activities());
+        for (int i = 0; i < settings.activities(); i++) {
+            int[] participants = random.ints(0, users.size()).distinct().limit(settings.participants()).toArray();
+
+            Activity activity = new Activity();
+            activity.setName("Load activity " + i);
+            activity.setDescription("Seeded by the load test");
+            activity.setMode(i % 4 == 3 ? Activity.ActivityMode.PENALTY_BALANCE : Activity.ActivityMode.FREE_INCREMENT);
+            Set<User> participantSet = new HashSet<>();
+            for (int participant : participants) {
+                participantSet.add(users.get(participant));
+            }
+            activity.setParticipants(participantSet);
+
+            activities.add(activity);
+            participantsByActivity.add(participants);
+        }
+        activities = activityRepository.saveAll(activities);
+
+        List<SeedData.SeededActivity> seededActivities = new ArrayList<>(activities.size());
+        for (int i = 0; i < activities.size(); i++) {
+            seededActivities.add(new SeedData.SeededActivity(activities.get(i).getId(), participantsByActivity.get(i)));
+        }
+        return new SeedData(seededUsers, seededActivities);
+    }
+}
@@ -0,0 +1,86 @@
+package com.scorevo.loadtest;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test knobs, read from {@code loadtest.*} properties.
+ *
+ * @param users            seeded users, all sharing {@link LoadTestSeeder#PASSWORD}
+ * @param activities       seeded activities; every fourth one is PENALTY_BALANCE
+ * @param participants     participants per activity
+ * @param mode             CLOSED: {@code concurrency} workers each wait for their previous response;
+ *                         OPEN: requests start at {@code rate} per second regardless of responses
+ * @param concurrency      closed-loop workers
+ * @param rate             open-loop arrivals per second
+ * @param warmup           run time before recording starts
+ * @param duration         recorded run time
+ * @param mix              relative weight of each operation
+ * @param output           HdrHistogram log file
+ */
+public record LoadTestSettings(
+        int users,
+        int activities,
+        int participants,
+        Mode mode,
+        int concurrency,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        String output) {
+
+    public enum Mode {
+        CLOSED,
+        OPEN
+    }
+
+    public static LoadTestSettings from(Environment environment) {
+        LoadTestSettings settings = new LoadTestSettings(
+                environment.getProperty("loadtest.users", Integer.class, 200),
+                environment.getProperty("loadtest.activities", Integer.class, 50),
+                environment.getProperty("loadtest.participants", Integer.class, 10),
+                Mode.valueOf(environment.getProperty("loadtest.mode", "closed").toUpperCase()),
+                environment.getProperty("loadtest.concurrency", Integer.class, 32),
+                environment.getProperty("loadtest.rate", Integer.class, 200),
+                Duration.ofSeconds(environment.getProperty("loadtest.warmup-seconds", Integer.class, 10)),
+                Duration.ofSeconds(environment.getProperty("loadtest.duration-seconds", Integer.class, 60)),
+                parseMix(environment.getProperty("loadtest.mix", "signin=5,list=25,score=35,totals=30,invite=5")),
+                environment.getProperty("loadtest.output", "target/loadtest/latency.hlog"));
+
+        if (settings.participants() < 2 || settings.participants() > settings.users()) {
+            throw new IllegalArgumentException("loadtest.participants must be between 2 and loadtest.users");
+        }
+        if (settings.activities() < 1 || settings.concurrency() < 1 || settings.rate() < 1) {
+            throw new IllegalArgumentException("loadtest.activities, concurrency and rate must be positive");
+        }
+        return settings;
+    }
+
+    /**
+     * Parse a mix like {@code signin=5,list=25,score=35}; operations left out are not run.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in loadtest.mix: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix selects no operations");
+        }
+        return weights;
+    }
+}
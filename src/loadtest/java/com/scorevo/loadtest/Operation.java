@@ -0,0 +1,37 @@
+package com.scorevo.loadtest;
+
+/**
+ * The endpoints the load generator drives, keyed by their name in {@code loadtest.mix}.
+ */
+public enum Operation {
+    SIGNIN("signin", "POST /api/auth/signin"),
+    LIST_ACTIVITIES("list", "GET /api/activities"),
+    ADD_SCORE("score", "POST /api/activities/{id}/scores"),
+    READ_TOTALS("totals", "GET /api/activities/{id}/scores/totals"),
+    INVITE("invite", "POST /api/activities/{id}/participants/email");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + key);
+    }
+}
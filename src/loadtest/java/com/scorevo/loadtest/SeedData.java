@@ -0,0 +1,21 @@
+package com.scorevo.loadtest;
+
+import java.util.List;
+
+/**
+ * What the seeder created, so the generator can pick valid ids without asking the API.
+ */
+public record SeedData(List<SeededUser> users, List<SeededActivity> activities) {
+
+    /**
+     * A seeded user and a JWT issued for it up front.
+     */
+    public record SeededUser(long id, String email, String token) {
+    }
+
+    /**
+     * A seeded activity with indexes into {@link SeedData#users()} of its participants.
+     */
+    public record SeededActivity(long id, int[] participants) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.scorevo.cache;
+
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.event.ScoreChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.event.UserChangedEvent;
+import com.scorevo.repository.ActivityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Version of everything readable about an activity: its metadata, participants, scores and totals,
+ * including the usernames and emails of its participants.
+ * Used as a strong ETag, so conditional GETs can answer 304 before touching the database.
+ * <p>
+ * Versions are bumped after the change commits, and must be read before the data they tag,
+ * so a response can be tagged older than its data but never newer. Each bump takes a fresh
+ * value from one counter, and tags carry a random per-process epoch, so tags from before a
+ * restart or from another node never match.
+ * <p>
+ * Tags reveal when an activity changes, so controllers only issue and honor them after the
+ * caller's membership check has passed; a non-member or removed user never gets a 304.
+ */
+@Component
+public class ActivityVersionTracker {
+
+    private final ActivityRepository activityRepository;
+    private final PrimaryReads primaryReads;
+
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+    private final AtomicLong counter = new AtomicLong();
+    // Entries are kept for deleted activities, so a tag from before the delete can never match again
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    // Bumped when every activity changes at once
+    private volatile long globalVersion;
+
+    @Autowired
+    public ActivityVersionTracker(ActivityRepository activityRepository, PrimaryReads primaryReads) {
+        this.activityRepository = activityRepository;
+        this.primaryReads = primaryReads;
+    }
+
+    /**
+     * Strong, quoted ETag of the current version of an activity
+     */
+    public String getETag(Long activityId) {
+        return "\"" + epoch + "-" + globalVersion + "-" + versions.getOrDefault(activityId, 0L) + "\"";
+    }
+
+    /**
+     * Whether If-None-Match carries the activity's current ETag. Tags are only issued to and
+     * honored for participants; anyone else gets no tag and falls through to the regular
+     * authorization, so non-members and removed users can neither learn nor replay versions.
+     */
+    public boolean checkNotModified(Long activityId, BooleanSupplier isParticipant, WebRequest webRequest) {
+        // Read before the membership check and the data it tags
+        String etag = getETag(activityId);
+        return isParticipant.getAsBoolean() && webRequest.checkNotModified(etag);
+    }
+
+    public void bump(Long activityId) {
+        versions.put(activityId, counter.incrementAndGet());
+    }
+
+    @TransactionalEventListener
+    public void onScoreChanged(ScoreChangedEvent event) {
+        bump(event.getActivityId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScoreTotalsReset(ScoreTotalsResetEvent event) {
+        if (event.getActivityId() == null) {
+            globalVersion = counter.incrementAndGet();
+        } else {
+            bump(event.getActivityId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        bump(event.getActivityId());
+    }
+
+    // Participant usernames and emails are part of every activity the user belongs to
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        primaryReads.read(() -> activityRepository.findIdsByParticipantId(event.getUserId())).forEach(this::bump);
+    }
+}
@@ -0,0 +1,70 @@
+package com.scorevo.cache;
+
+import com.scorevo.payload.response.ScoreDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, in-memory front of the persisted idempotency keys, so retries that arrive
+ * shortly after the original request are answered without a database round trip.
+ * Least recently used entries are evicted first; entries expire after the key TTL.
+ */
+@Component
+public class IdempotencyCache {
+
+    public record Entry(String fingerprint, ScoreDTO response, long expiresAtNanos) {
+    }
+
+    private record CacheKey(Long userId, String key) {
+    }
+
+    private final Duration ttl;
+
+    // Access-ordered so the least recently used key is evicted first; guarded by this
+    private final LinkedHashMap<CacheKey, Entry> entries;
+
+    @Autowired
+    public IdempotencyCache(
+            @Value("${scorevo.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${scorevo.idempotency.cache-size:10000}") int maxEntries) {
+        this.ttl = Duration.ofHours(ttlHours);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Cached response for a user's key, or null if absent or expired
+     */
+    public synchronized Entry get(Long userId, String key) {
+        CacheKey cacheKey = new CacheKey(userId, key);
+        Entry entry = entries.get(cacheKey);
+        if (entry != null && entry.expiresAtNanos() - System.nanoTime() <= 0) {
+            entries.remove(cacheKey);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Cache a response until the given remaining lifetime of its key runs out
+     */
+    public synchronized void put(Long userId, String key, String fingerprint, ScoreDTO response, Duration remaining) {
+        if (remaining.isNegative() || remaining.isZero()) {
+            return;
+        }
+        entries.put(new CacheKey(userId, key), new Entry(fingerprint, response, System.nanoTime() + remaining.toNanos()));
+    }
+}
@@ -0,0 +1,103 @@
+package com.scorevo.cache;
+
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.repository.ActivityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, in-memory participant sets of recently checked activities, so membership checks
+ * on every score read and write are a binary search instead of a query. Each activity's
+ * participants are held as a sorted long[] of user ids, 8 bytes per participant.
+ * <p>
+ * An activity is dropped after any participant change commits (ActivityChangedEvent covers
+ * adding, removing, invitation acceptance and deletion). A set loaded while such a change
+ * was in flight is not cached, so a stale set can only be served in the moment between a
+ * commit and its event. Activities with more participants than a set may hold are never
+ * cached and are checked with an indexed exists query instead.
+ */
+@Component
+public class MembershipCache {
+
+    private final ActivityRepository activityRepository;
+    private final PrimaryReads primaryReads;
+    private final int maxMembers;
+
+    // Access-ordered so the least recently used activity is evicted first; guarded by this
+    private final LinkedHashMap<Long, long[]> members;
+    // Bumped by every invalidation; a load that saw it change may be stale and is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public MembershipCache(
+            ActivityRepository activityRepository,
+            PrimaryReads primaryReads,
+            @Value("${scorevo.membership.cache-size:10000}") int maxActivities,
+            @Value("${scorevo.membership.max-members:100000}") int maxMembers) {
+        this.activityRepository = activityRepository;
+        this.primaryReads = primaryReads;
+        this.maxMembers = maxMembers;
+        this.members = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > maxActivities;
+            }
+        };
+    }
+
+    /**
+     * Whether a user participates in an activity, as of the last committed change
+     */
+    public boolean isMember(Long activityId, Long userId) {
+        long[] cached;
+        synchronized (this) {
+            cached = members.get(activityId);
+        }
+        if (cached != null) {
+            return Arrays.binarySearch(cached, userId) >= 0;
+        }
+
+        long stamp = invalidations.get();
+        // Sorted by the query; one past the cap tells an oversized activity apart. From the primary,
+        // as this usually runs right after the change that invalidated the set
+        List<Long> ids = primaryReads.read(() -> activityRepository.findParticipantIds(activityId, Limit.of(maxMembers + 1)));
+        if (ids.size() > maxMembers) {
+            return activityRepository.existsByIdAndParticipantsId(activityId, userId);
+        }
+
+        long[] loaded = new long[ids.size()];
+        for (int i = 0; i < loaded.length; i++) {
+            loaded[i] = ids.get(i);
+        }
+        synchronized (this) {
+            if (invalidations.get() == stamp) {
+                members.put(activityId, loaded);
+            }
+        }
+        return Arrays.binarySearch(loaded, userId) >= 0;
+    }
+
+    public synchronized void invalidate(Long activityId) {
+        invalidations.incrementAndGet();
+        members.remove(activityId);
+    }
+
+    // Runs before other listeners, so those re-checking membership see this change
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        invalidate(event.getActivityId());
+    }
+}
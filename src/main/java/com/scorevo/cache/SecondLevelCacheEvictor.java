@@ -0,0 +1,30 @@
+package com.scorevo.cache;
+
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.model.Activity;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drops second-level cache entries that the entity mappings alone would keep serving.
+ * Activities loaded from the cache skip their tombstone restriction, so a deleted
+ * activity is evicted once its change commits and is not found on the next load.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        // Cheap for the rarer metadata and participant changes, which simply reload it once
+        entityManagerFactory.getCache().evict(Activity.class, event.getActivityId());
+    }
+}
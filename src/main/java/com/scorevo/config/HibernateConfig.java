@@ -0,0 +1,42 @@
+package com.scorevo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate defaults for the score write path. Explicit spring.jpa.properties
+ * settings take precedence over these.
+ */
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * Turns on JDBC statement batching so bulk score inserts go out in a few
+     * round-trips. On MySQL add rewriteBatchedStatements=true to the JDBC URL
+     * so the driver folds each batch into a multi-row INSERT.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${scorevo.jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize));
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+        };
+    }
+
+    /**
+     * Returns the connection to the pool after every transaction, and after every
+     * statement outside one, instead of holding it for the whole open-in-view request.
+     * Requests waiting on a score writer then hold no connection, so the writer can
+     * always get one, plus the extra one the pooled id generator borrows.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
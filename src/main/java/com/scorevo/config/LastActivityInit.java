@@ -0,0 +1,30 @@
+package com.scorevo.config;
+
+import com.scorevo.repository.ActivityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the last activity time of activities created before it was tracked,
+ * so they take part in listings sorted by last activity.
+ */
+@Component
+public class LastActivityInit implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastActivityInit.class);
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int backfilled = activityRepository.backfillLastActivityAt();
+        if (backfilled > 0) {
+            logger.info("Backfilled the last activity time of {} activities", backfilled);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.scorevo.config;
+
+import com.scorevo.datasource.ReadWriteRoutingDataSource;
+import com.scorevo.datasource.ReadYourWritesInterceptor;
+import com.scorevo.datasource.ReadYourWritesTracker;
+import com.scorevo.datasource.ReplicaAwareJpaDialect;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica support, enabled by setting scorevo.datasource.replica.jdbc-url. The primary
+ * pool is configured by the usual spring.datasource properties; the replica pool takes
+ * HikariCP settings under scorevo.datasource.replica (jdbc-url, username, password,
+ * maximum-pool-size, ...).
+ * <p>
+ * {@code @Transactional(readOnly = true)} work then reads from the replica, except for users
+ * within scorevo.datasource.read-your-writes-window (default 5s) of their own last write.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "scorevo.datasource.replica", name = "jdbc-url")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${scorevo.datasource.read-your-writes-window:PT5S}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("scorevo.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReadYourWritesTracker readYourWritesTracker) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, readYourWritesTracker);
+    }
+
+    /**
+     * The data source everything else uses. Defers fetching a physical connection until the
+     * first statement, by which time the transaction's read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer(ReadYourWritesTracker readYourWritesTracker) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesTracker));
+            }
+        };
+    }
+
+    /**
+     * Installs the dialect that keeps replica reads out of the second-level cache.
+     * Static, as post-processors are created before any regular bean.
+     */
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialectInstaller(
+            ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.setJpaDialect(new ReplicaAwareJpaDialect(routingDataSource));
+                }
+                return bean;
+            }
+        };
+    }
+}
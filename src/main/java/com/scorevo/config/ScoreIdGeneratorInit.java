@@ -0,0 +1,60 @@
+package com.scorevo.config;
+
+import com.scorevo.model.Score;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the pooled score id generator past the ids already in the scores table,
+ * so databases created while scores used an IDENTITY column keep working.
+ * Runs once the schema is in place and before the server accepts requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ScoreIdGeneratorInit {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreIdGeneratorInit.class);
+
+    private static final String GENERATOR_NAME = "scores";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void seedScoreIds() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM scores", Long.class);
+            if (maxId == null || maxId == 0) {
+                // Nothing to skip; Hibernate creates the generator row on first use
+                return;
+            }
+
+            // The pooled optimizer hands out the block ending at the stored value,
+            // so keep one full block clear of the highest existing id
+            long floor = maxId + Score.ID_ALLOCATION_SIZE + 1;
+
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT next_val FROM " + Score.ID_GENERATOR_TABLE + " WHERE generator = ?",
+                    Long.class, GENERATOR_NAME);
+            if (current.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO " + Score.ID_GENERATOR_TABLE + " (generator, next_val) VALUES (?, ?)",
+                        GENERATOR_NAME, floor);
+                logger.info("Seeded score id generator at {}", floor);
+            } else if (current.get(0) < floor) {
+                jdbcTemplate.update("UPDATE " + Score.ID_GENERATOR_TABLE + " SET next_val = ? WHERE generator = ?",
+                        floor, GENERATOR_NAME);
+                logger.info("Advanced score id generator to {}", floor);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not seed the score id generator: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.scorevo.config;
+
+import com.scorevo.repository.ScoreRepository;
+import com.scorevo.repository.ScoreRollupRepository;
+import com.scorevo.repository.ScoreTotalRepository;
+import com.scorevo.service.ScoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the materialized score totals and rollups on the first start after upgrading,
+ * rebuilds them on demand when started with --rebuild-score-totals, and
+ * repairs drifted activities when started with --verify-score-totals.
+ */
+@Component
+public class ScoreTotalsInit implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreTotalsInit.class);
+
+    static final String REBUILD_OPTION = "rebuild-score-totals";
+    static final String VERIFY_OPTION = "verify-score-totals";
+
+    @Autowired
+    private ScoreService scoreService;
+
+    @Autowired
+    private ScoreRepository scoreRepository;
+
+    @Autowired
+    private ScoreTotalRepository scoreTotalRepository;
+
+    @Autowired
+    private ScoreRollupRepository scoreRollupRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            logger.info("Rebuilding score totals from score history");
+            scoreService.rebuildScoreTotals();
+        } else if ((scoreTotalRepository.count() == 0 || scoreRollupRepository.count() == 0)
+                && scoreRepository.count() > 0) {
+            logger.info("Score totals or rollups are empty, backfilling from score history");
+            scoreService.rebuildScoreTotals();
+        }
+
+        if (args.containsOption(VERIFY_OPTION)) {
+            int repaired = scoreService.repairScoreTotals();
+            logger.info("Verified score totals, repaired {} activities", repaired);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.scorevo.config;
+
+import com.scorevo.search.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the in-memory search index from the database on startup.
+ */
+@Component
+public class SearchIndexInit implements ApplicationRunner {
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        searchIndex.rebuild();
+    }
+}
@@ -0,0 +1,128 @@
+package com.scorevo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for the entities read on nearly every request: roles,
+ * users (loaded by username for every JWT) and activities (loaded for every score read
+ * and write). Each entity gets its own Caffeine region with its own size bound and
+ * time-to-live, so a burst of activity loads cannot push users out and vice versa.
+ * <p>
+ * Regions are created here rather than on demand, and Hibernate fails on startup if an
+ * entity names a region that is missing. Every region's hit ratio, size and evictions
+ * are published to Micrometer under the region's name.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String ROLES_REGION = "roles";
+    public static final String USERS_REGION = "users";
+    public static final String USER_ROLES_REGION = "users.roles";
+    public static final String USERS_BY_USERNAME_REGION = "users-by-username";
+    public static final String ACTIVITIES_REGION = "activities";
+    // Hibernate's own region names for the query cache
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private final List<Region> regions;
+
+    public SecondLevelCacheConfig(
+            @Value("${scorevo.cache.users.max-size:10000}") long maxUsers,
+            @Value("${scorevo.cache.users.ttl:PT30M}") Duration usersTtl,
+            @Value("${scorevo.cache.activities.max-size:10000}") long maxActivities,
+            @Value("${scorevo.cache.activities.ttl:PT10M}") Duration activitiesTtl,
+            @Value("${scorevo.cache.queries.max-size:10000}") long maxQueries,
+            @Value("${scorevo.cache.queries.ttl:PT10M}") Duration queriesTtl) {
+        this.regions = List.of(
+                // A handful of rows that never change
+                new Region(ROLES_REGION, 16, null),
+                new Region(USERS_REGION, maxUsers, usersTtl),
+                new Region(USER_ROLES_REGION, maxUsers, usersTtl),
+                new Region(USERS_BY_USERNAME_REGION, maxUsers, usersTtl),
+                new Region(ACTIVITIES_REGION, maxActivities, activitiesTtl),
+                new Region(QUERY_RESULTS_REGION, maxQueries, queriesTtl),
+                // Must outlive every cached query result, or stale results could be served
+                new Region(UPDATE_TIMESTAMPS_REGION, 10_000, null));
+    }
+
+    /**
+     * A cache manager of its own per application context, so contexts started side by
+     * side (as tests do) never share or clash over regions.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("scorevo-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (Region region : regions) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.maxSize()));
+            if (region.ttl() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+            }
+            // Hibernate stores immutable cache entries, so copying them on every access is wasted work
+            configuration.setStoreByValue(false);
+            configuration.setNativeStatisticsEnabled(true);
+            cacheManager.createCache(region.name(), configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+            properties.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, "true");
+            properties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.putIfAbsent(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.putIfAbsent(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * Publishes cache.gets, cache.puts, cache.evictions and cache.size for every region,
+     * plus cache.hit.ratio, all tagged with the region as cache.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (Region region : regions) {
+                @SuppressWarnings("unchecked")
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = hibernateCacheManager
+                        .getCache(region.name())
+                        .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+
+                Tags tags = Tags.of("cacheManager", "hibernate");
+                CaffeineCacheMetrics.monitor(registry, cache, region.name(), tags);
+                Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                        .tags(tags)
+                        .tag("cache", region.name())
+                        .description("Share of lookups served from the cache")
+                        .register(registry);
+            }
+        };
+    }
+
+    // ttl is null for regions whose entries never expire
+    private record Region(String name, long maxSize, Duration ttl) {
+    }
+}
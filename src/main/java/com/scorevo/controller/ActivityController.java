@@ -1,14 +1,21 @@
 package com.scorevo.controller;
 
+import com.scorevo.cache.ActivityVersionTracker;
 import com.scorevo.model.Activity;
-import com.scorevo.model.User;
+import com.scorevo.model.ActivityDeletion;
+import com.scorevo.payload.request.ActivityListRequest;
 import com.scorevo.payload.request.ActivityRequest;
+import com.scorevo.payload.request.BulkParticipantRequest;
 import com.scorevo.payload.response.ActivityDTO;
+import com.scorevo.payload.response.ActivityDeletionDTO;
+import com.scorevo.payload.response.ActivityPageDTO;
+import com.scorevo.payload.response.ActivitySearchHitDTO;
 import com.scorevo.payload.response.MessageResponse;
-import com.scorevo.repository.ActivityRepository;
-import com.scorevo.repository.UserRepository;
+import com.scorevo.search.SearchIndex;
 import com.scorevo.security.model.SecurityUser;
+import com.scorevo.service.ActivityQueryService;
 import com.scorevo.service.ActivityService;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -16,66 +23,55 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:4200", maxAge = 3600)
 @RestController
 @RequestMapping("/api/activities")
 public class ActivityController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private ActivityService activityService;
 
     @Autowired
-    private ActivityRepository activityRepository;
+    private ActivityQueryService activityQueryService;
+
+    @Autowired
+    private ActivityVersionTracker activityVersionTracker;
 
     @Autowired
-    private UserRepository userRepository;
+    private SearchIndex searchIndex;
 
     /**
-     * Get all activities for the current user
+     * Get all activities for the current user.
+     * With any of cursor, limit, mode, sort or participantsPreview set, returns one page
+     * newest first and the cursor of the next page in the X-Next-Cursor header.
      */
     @GetMapping
-    public ResponseEntity<?> getUserActivities() {
+    public ResponseEntity<?> getUserActivities(ActivityListRequest listRequest) {
         try {
             Long userId = getCurrentUserId();
 
-            // Get activities directly from repository to avoid collection modification issues
-            List<Activity> activities = activityRepository.findByParticipantsId(userId);
-
-            // Convert to DTOs for safe transmission
-            List<ActivityDTO> activityDTOs = new ArrayList<>();
-
-            for (Activity activity : activities) {
-                ActivityDTO dto = new ActivityDTO();
-                dto.setId(activity.getId());
-                dto.setName(activity.getName());
-                dto.setDescription(activity.getDescription());
-                dto.setMode(activity.getMode());
-                dto.setCreatedAt(activity.getCreatedAt());
-
-                // Get participants safely
-                List<ActivityDTO.ParticipantDTO> participantDTOs = new ArrayList<>();
-
-                // Get participants using a separate query to avoid concurrent modification
-                List<User> participants = userRepository.findUsersByActivityId(activity.getId());
-
-                for (User user : participants) {
-                    ActivityDTO.ParticipantDTO participantDTO = new ActivityDTO.ParticipantDTO();
-                    participantDTO.setId(user.getId());
-                    participantDTO.setUsername(user.getUsername());
-                    participantDTO.setEmail(user.getEmail());
-                    participantDTOs.add(participantDTO);
+            if (listRequest.isPaged()) {
+                ActivityPageDTO page = activityQueryService.getUserActivityPage(userId, listRequest);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (page.getNextCursor() != null) {
+                    response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
                 }
-
-                dto.setParticipants(participantDTOs);
-                activityDTOs.add(dto);
+                return response.body(page.getActivities());
             }
 
+            // Activities and all their participants in two queries
+            List<ActivityDTO> activityDTOs = activityQueryService.getUserActivityDTOs(userId);
+
             return ResponseEntity.ok(activityDTOs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -84,43 +80,36 @@ public class ActivityController {
     }
 
     /**
-     * Get activity by ID
+     * Typeahead search over the names and descriptions of the current user's activities
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ActivitySearchHitDTO>> searchActivities(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(searchIndex.searchActivities(query, userId, limit));
+    }
+
+    /**
+     * Get activity by ID.
+     * Answers 304 when If-None-Match carries the activity's current ETag.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getActivityById(@PathVariable("id") Long activityId) {
+    public ResponseEntity<?> getActivityById(@PathVariable("id") Long activityId, WebRequest webRequest) {
+        Long userId = getCurrentUserId();
+        if (activityVersionTracker.checkNotModified(activityId,
+                () -> activityService.isParticipant(activityId, userId), webRequest)) {
+            return null;
+        }
+
         try {
-            Long userId = getCurrentUserId();
-            Activity activity = activityService.getActivityById(activityId);
+            ActivityDTO dto = activityQueryService.getActivityDTO(activityId);
 
             // Check if the user is a participant
-            if (!activityService.isParticipant(activity, userId)) {
+            if (dto.getParticipants().stream().noneMatch(participant -> participant.getId().equals(userId))) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            // Convert to DTO for safe transmission
-            ActivityDTO dto = new ActivityDTO();
-            dto.setId(activity.getId());
-            dto.setName(activity.getName());
-            dto.setDescription(activity.getDescription());
-            dto.setMode(activity.getMode());
-            dto.setCreatedAt(activity.getCreatedAt());
-
-            // Get participants safely
-            List<ActivityDTO.ParticipantDTO> participantDTOs = new ArrayList<>();
-
-            // Get participants using a separate query to avoid concurrent modification
-            List<User> participants = userRepository.findUsersByActivityId(activity.getId());
-
-            for (User user : participants) {
-                ActivityDTO.ParticipantDTO participantDTO = new ActivityDTO.ParticipantDTO();
-                participantDTO.setId(user.getId());
-                participantDTO.setUsername(user.getUsername());
-                participantDTO.setEmail(user.getEmail());
-                participantDTOs.add(participantDTO);
-            }
-
-            dto.setParticipants(participantDTOs);
-
             return ResponseEntity.ok(dto);
         } catch (Exception e) {
             e.printStackTrace();
@@ -129,6 +118,31 @@ public class ActivityController {
         }
     }
 
+    /**
+     * Get the activity with its participants, ranked totals and latest scores in one response.
+     * Shares the activity's ETag, so it answers 304 on the same terms as GET /{id}.
+     */
+    @GetMapping("/{id}/dashboard")
+    public ResponseEntity<?> getActivityDashboard(
+            @PathVariable("id") Long activityId,
+            @RequestParam(value = "scores", defaultValue = "10") int scores,
+            WebRequest webRequest) {
+        Long userId = getCurrentUserId();
+        if (activityVersionTracker.checkNotModified(activityId,
+                () -> activityService.isParticipant(activityId, userId), webRequest)) {
+            return null;
+        }
+
+        try {
+            return ResponseEntity.ok(activityQueryService.getActivityDashboard(activityId, userId, scores));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     /**
      * Create a new activity
      */
@@ -139,28 +153,7 @@ public class ActivityController {
             Activity createdActivity = activityService.createActivity(activityRequest, userId);
 
             // Convert to DTO
-            ActivityDTO dto = new ActivityDTO();
-            dto.setId(createdActivity.getId());
-            dto.setName(createdActivity.getName());
-            dto.setDescription(createdActivity.getDescription());
-            dto.setMode(createdActivity.getMode());
-            dto.setCreatedAt(createdActivity.getCreatedAt());
-
-            // Get participants safely
-            List<ActivityDTO.ParticipantDTO> participantDTOs = new ArrayList<>();
-
-            // Get participants using a separate query to avoid concurrent modification
-            List<User> participants = userRepository.findUsersByActivityId(createdActivity.getId());
-
-            for (User user : participants) {
-                ActivityDTO.ParticipantDTO participantDTO = new ActivityDTO.ParticipantDTO();
-                participantDTO.setId(user.getId());
-                participantDTO.setUsername(user.getUsername());
-                participantDTO.setEmail(user.getEmail());
-                participantDTOs.add(participantDTO);
-            }
-
-            dto.setParticipants(participantDTOs);
+            ActivityDTO dto = activityQueryService.getActivityDTO(createdActivity.getId());
 
             return ResponseEntity.status(HttpStatus.CREATED).body(dto);
         } catch (Exception e) {
@@ -183,28 +176,7 @@ public class ActivityController {
             Activity updatedActivity = activityService.updateActivity(activityId, activityRequest, userId);
 
             // Convert to DTO
-            ActivityDTO dto = new ActivityDTO();
-            dto.setId(updatedActivity.getId());
-            dto.setName(updatedActivity.getName());
-            dto.setDescription(updatedActivity.getDescription());
-            dto.setMode(updatedActivity.getMode());
-            dto.setCreatedAt(updatedActivity.getCreatedAt());
-
-            // Get participants safely
-            List<ActivityDTO.ParticipantDTO> participantDTOs = new ArrayList<>();
-
-            // Get participants using a separate query to avoid concurrent modification
-            List<User> participants = userRepository.findUsersByActivityId(updatedActivity.getId());
-
-            for (User user : participants) {
-                ActivityDTO.ParticipantDTO participantDTO = new ActivityDTO.ParticipantDTO();
-                participantDTO.setId(user.getId());
-                participantDTO.setUsername(user.getUsername());
-                participantDTO.setEmail(user.getEmail());
-                participantDTOs.add(participantDTO);
-            }
-
-            dto.setParticipants(participantDTOs);
+            ActivityDTO dto = activityQueryService.getActivityDTO(updatedActivity.getId());
 
             return ResponseEntity.ok(dto);
         } catch (IllegalStateException e) {
@@ -218,15 +190,16 @@ public class ActivityController {
     }
 
     /**
-     * Delete an activity
+     * Delete an activity. It disappears at once; its rows are removed in the background,
+     * which the returned deletion and GET /{id}/deletion report on.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteActivity(@PathVariable("id") Long activityId) {
         try {
             Long userId = getCurrentUserId();
 
-            activityService.deleteActivity(activityId, userId);
-            return ResponseEntity.noContent().build();
+            ActivityDeletion deletion = activityService.deleteActivity(activityId, userId);
+            return ResponseEntity.accepted().body(ActivityDeletionDTO.fromDeletion(deletion));
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse(e.getMessage()));
@@ -237,6 +210,24 @@ public class ActivityController {
         }
     }
 
+    /**
+     * Get the progress of an activity deletion
+     */
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<?> getActivityDeletion(@PathVariable("id") Long activityId) {
+        try {
+            Long userId = getCurrentUserId();
+
+            ActivityDeletion deletion = activityService.getActivityDeletion(activityId, userId);
+            return ResponseEntity.ok(ActivityDeletionDTO.fromDeletion(deletion));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     /**
      * Add a participant by user ID
      */
@@ -250,28 +241,7 @@ public class ActivityController {
             Activity updatedActivity = activityService.addParticipant(activityId, participantUserId, currentUserId);
 
             // Convert to DTO
-            ActivityDTO dto = new ActivityDTO();
-            dto.setId(updatedActivity.getId());
-            dto.setName(updatedActivity.getName());
-            dto.setDescription(updatedActivity.getDescription());
-            dto.setMode(updatedActivity.getMode());
-            dto.setCreatedAt(updatedActivity.getCreatedAt());
-
-            // Get participants safely
-            List<ActivityDTO.ParticipantDTO> participantDTOs = new ArrayList<>();
-
-            // Get participants using a separate query to avoid concurrent modification
-            List<User> participants = userRepository.findUsersByActivityId(updatedActivity.getId());
-
-            for (User user : participants) {
-                ActivityDTO.ParticipantDTO participantDTO = new ActivityDTO.ParticipantDTO();
-                participantDTO.setId(user.getId());
-                participantDTO.setUsername(user.getUsername());
-                participantDTO.setEmail(user.getEmail());
-                participantDTOs.add(participantDTO);
-            }
-
-            dto.setParticipants(participantDTOs);
+            ActivityDTO dto = activityQueryService.getActivityDTO(updatedActivity.getId());
 
             return ResponseEntity.ok(dto);
         } catch (IllegalStateException e) {
@@ -284,6 +254,27 @@ public class ActivityController {
         }
     }
 
+    /**
+     * Add many participants by user ID in one request
+     */
+    @PostMapping("/{activityId}/participants/bulk")
+    public ResponseEntity<?> addParticipants(
+            @PathVariable("activityId") Long activityId,
+            @Valid @RequestBody BulkParticipantRequest bulkRequest) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            return ResponseEntity.ok(activityService.addParticipants(activityId, bulkRequest.getUserIds(), currentUserId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     /**
      * Add a participant by email
      */
@@ -319,28 +310,7 @@ public class ActivityController {
             Activity updatedActivity = activityService.removeParticipant(activityId, participantUserId, currentUserId);
 
             // Convert to DTO
-            ActivityDTO dto = new ActivityDTO();
-            dto.setId(updatedActivity.getId());
-            dto.setName(updatedActivity.getName());
-            dto.setDescription(updatedActivity.getDescription());
-            dto.setMode(updatedActivity.getMode());
-            dto.setCreatedAt(updatedActivity.getCreatedAt());
-
-            // Get participants safely
-            List<ActivityDTO.ParticipantDTO> participantDTOs = new ArrayList<>();
-
-            // Get participants using a separate query to avoid concurrent modification
-            List<User> participants = userRepository.findUsersByActivityId(updatedActivity.getId());
-
-            for (User user : participants) {
-                ActivityDTO.ParticipantDTO participantDTO = new ActivityDTO.ParticipantDTO();
-                participantDTO.setId(user.getId());
-                participantDTO.setUsername(user.getUsername());
-                participantDTO.setEmail(user.getEmail());
-                participantDTOs.add(participantDTO);
-            }
-
-            dto.setParticipants(participantDTOs);
+            ActivityDTO dto = activityQueryService.getActivityDTO(updatedActivity.getId());
 
             return ResponseEntity.ok(dto);
         } catch (IllegalStateException e) {
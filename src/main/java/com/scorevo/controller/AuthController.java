@@ -1,5 +1,7 @@
 package com.scorevo.controller;
 
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.UserChangedEvent;
 import com.scorevo.model.Role;
 import com.scorevo.model.User;
 import com.scorevo.payload.request.LoginRequest;
@@ -13,6 +15,7 @@ import com.scorevo.security.model.SecurityUser;
 import com.scorevo.service.InvitationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -49,10 +52,13 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    PrimaryReads primaryReads;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        // Find user by email instead of username
-        Optional<User> userOptional = userRepository.findByEmail(loginRequest.getEmail());
+        // Find user by email instead of username, on the primary so users can sign in right after signing up
+        Optional<User> userOptional = primaryReads.read(() -> userRepository.findByEmail(loginRequest.getEmail()));
 
         if (userOptional.isEmpty()) {
             return ResponseEntity
@@ -84,6 +90,9 @@ public class AuthController {
     @Autowired
     private InvitationService invitationService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
@@ -129,6 +138,7 @@ public class AuthController {
 
         user.setRoles(roles);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId()));
 
         // Process any pending invitations for this user
         invitationService.processInvitationsForNewUser(savedUser.getId(), savedUser.getEmail());
@@ -1,22 +1,40 @@
 package com.scorevo.controller;
 
+import com.scorevo.cache.ActivityVersionTracker;
+import com.scorevo.live.ScoreStreamHub;
 import com.scorevo.model.Activity;
 import com.scorevo.model.Score;
+import com.scorevo.model.ScoreRollup;
+import com.scorevo.payload.request.BatchScoreRequest;
+import com.scorevo.payload.request.ScoreExportFormat;
+import com.scorevo.payload.request.ScoreHistoryRequest;
 import com.scorevo.payload.request.ScoreRequest;
+import com.scorevo.payload.response.BatchScoreResponse;
+import com.scorevo.payload.response.LeaderboardDTO;
+import com.scorevo.payload.response.ScorePageDTO;
 import com.scorevo.payload.response.ScoreDTO;
+import com.scorevo.payload.response.TimeseriesDTO;
 import com.scorevo.security.model.SecurityUser;
 import com.scorevo.service.ActivityService;
 import com.scorevo.service.ScoreService;
 
 import java.util.stream.Collectors;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -25,20 +43,45 @@ import java.util.Map;
 @RequestMapping("/api/activities/{activityId}/scores")
 public class ScoreController {
 
+    // Carries the cursor of the next history page; absent on the last page
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private ScoreService scoreService;
 
     @Autowired
     private ActivityService activityService;
 
+    @Autowired
+    private ScoreStreamHub scoreStreamHub;
+
+    @Autowired
+    private ActivityVersionTracker activityVersionTracker;
+
     /**
-     * Get all scores for an activity
+     * Get all scores for an activity.
+     * With any of cursor, limit, from or to set, returns one page newest first
+     * and the cursor of the next page in the X-Next-Cursor header.
+     * Answers 304 when If-None-Match carries the activity's current ETag.
      */
     @GetMapping
-    public ResponseEntity<List<ScoreDTO>> getActivityScores(@PathVariable("activityId") Long activityId) {
+    public ResponseEntity<List<ScoreDTO>> getActivityScores(
+            @PathVariable("activityId") Long activityId,
+            ScoreHistoryRequest historyRequest,
+            WebRequest webRequest) {
         Long userId = getCurrentUserId();
-        
+        if (activityVersionTracker.checkNotModified(activityId,
+                () -> activityService.isParticipant(activityId, userId), webRequest)) {
+            return null;
+        }
+
         try {
+            if (historyRequest.isPaged()) {
+                return toPageResponse(scoreService.getActivityScoresPage(activityId, historyRequest, userId));
+            }
+
             List<Score> scores = scoreService.getActivityScores(activityId, userId);
             List<ScoreDTO> scoreDTOs = scores.stream()
                     .map(ScoreDTO::fromScore)
@@ -46,20 +89,33 @@ public class ScoreController {
             return ResponseEntity.ok(scoreDTOs);
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * Get scores for a specific user in an activity
+     * Get scores for a specific user in an activity.
+     * Accepts the same paging parameters as the activity score history.
      */
     @GetMapping("/users/{userId}")
     public ResponseEntity<List<ScoreDTO>> getUserActivityScores(
             @PathVariable("activityId") Long activityId,
-            @PathVariable("userId") Long targetUserId) {
-        
+            @PathVariable("userId") Long targetUserId,
+            ScoreHistoryRequest historyRequest,
+            WebRequest webRequest) {
         Long currentUserId = getCurrentUserId();
-        
+        if (activityVersionTracker.checkNotModified(activityId,
+                () -> activityService.isParticipant(activityId, currentUserId), webRequest)) {
+            return null;
+        }
+
         try {
+            if (historyRequest.isPaged()) {
+                return toPageResponse(
+                        scoreService.getUserActivityScoresPage(activityId, targetUserId, historyRequest, currentUserId));
+            }
+
             List<Score> scores = scoreService.getUserActivityScores(activityId, targetUserId, currentUserId);
             List<ScoreDTO> scoreDTOs = scores.stream()
                     .map(ScoreDTO::fromScore)
@@ -67,16 +123,56 @@ public class ScoreController {
             return ResponseEntity.ok(scoreDTOs);
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * Get the current total score for each user in an activity
+     * Export the full score history of an activity as NDJSON or CSV, streamed row by row
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportScores(
+            @PathVariable("activityId") Long activityId,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+
+        Long userId = getCurrentUserId();
+
+        ScoreExportFormat exportFormat;
+        try {
+            exportFormat = ScoreExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Check membership up front; once streaming starts the status can no longer change
+        Activity activity = activityService.getActivityById(activityId);
+        if (!activityService.isParticipant(activity, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        StreamingResponseBody body = out -> scoreService.exportActivityScores(activityId, exportFormat, out, userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"activity-" + activityId + "-scores." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Get the current total score for each user in an activity.
+     * Answers 304 when If-None-Match carries the activity's current ETag.
      */
     @GetMapping("/totals")
-    public ResponseEntity<Map<Long, Integer>> getCurrentScores(@PathVariable("activityId") Long activityId) {
+    public ResponseEntity<Map<Long, Integer>> getCurrentScores(
+            @PathVariable("activityId") Long activityId,
+            WebRequest webRequest) {
         Long userId = getCurrentUserId();
-        
+        if (activityVersionTracker.checkNotModified(activityId,
+                () -> activityService.isParticipant(activityId, userId), webRequest)) {
+            return null;
+        }
+
         try {
             Map<Long, Integer> scores = scoreService.getCurrentScores(activityId, userId);
             return ResponseEntity.ok(scores);
@@ -86,14 +182,106 @@ public class ScoreController {
     }
 
     /**
-     * Add a new score
+     * Live stream of the activity's totals as Server-Sent Events: a "totals" event with
+     * every current total, then "delta" events with the changes, at most one per interval
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamScores(@PathVariable("activityId") Long activityId) {
+        Long userId = getCurrentUserId();
+
+        // Check membership up front, as a status can no longer be sent once streaming starts.
+        // The hub closes the stream if the user is removed later
+        Activity activity = activityService.getActivityById(activityId);
+        if (!activityService.isParticipant(activity, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(scoreStreamHub.subscribe(activityId, userId));
+    }
+
+    /**
+     * Get points per user per HOUR, DAY or WEEK bucket in [from, to), read from the score rollups
+     */
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeseriesDTO> getTimeseries(
+            @PathVariable("activityId") Long activityId,
+            @RequestParam(value = "bucket", defaultValue = "DAY") String bucket,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "userId", required = false) Long targetUserId) {
+
+        Long userId = getCurrentUserId();
+
+        try {
+            ScoreRollup.Bucket rollupBucket = ScoreRollup.Bucket.valueOf(bucket.toUpperCase());
+            return ResponseEntity.ok(scoreService.getTimeseries(activityId, rollupBucket, from, to, targetUserId, userId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get a page of the ranked leaderboard for an activity
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<LeaderboardDTO> getLeaderboard(
+            @PathVariable("activityId") Long activityId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "offset", defaultValue = "0") int offset) {
+
+        Long userId = getCurrentUserId();
+
+        try {
+            return ResponseEntity.ok(scoreService.getLeaderboard(activityId, offset, limit, userId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    /**
+     * Get the leaderboard entries ranked around a specific user
+     */
+    @GetMapping("/leaderboard/around/{userId}")
+    public ResponseEntity<LeaderboardDTO> getLeaderboardAround(
+            @PathVariable("activityId") Long activityId,
+            @PathVariable("userId") Long targetUserId,
+            @RequestParam(value = "radius", defaultValue = "5") int radius) {
+
+        Long currentUserId = getCurrentUserId();
+
+        try {
+            return ResponseEntity.ok(scoreService.getLeaderboardAround(activityId, targetUserId, radius, currentUserId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Add a new score.
+     * With an Idempotency-Key header, a retry of the same request returns the original score.
      */
     @PostMapping
     public ResponseEntity<ScoreDTO> addScore(
             @PathVariable("activityId") Long activityId,
-            @Valid @RequestBody ScoreRequest scoreRequest) {
+            @Valid @RequestBody ScoreRequest scoreRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         
         Long userId = getCurrentUserId();
+
+        if (idempotencyKey != null) {
+            try {
+                ScoreDTO scoreDTO = scoreService.addScoreIdempotently(activityId, scoreRequest, userId, idempotencyKey);
+                return ResponseEntity.status(HttpStatus.CREATED).body(scoreDTO);
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         
         try {
             // Get the activity to determine the mode
@@ -117,6 +305,26 @@ public class ScoreController {
         }
     }
 
+    /**
+     * Add many scores in one request, routed by the activity's mode.
+     * Invalid items are rejected individually and reported in the per-item results.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchScoreResponse> addScoresBatch(
+            @PathVariable("activityId") Long activityId,
+            @RequestBody BatchScoreRequest batchRequest) {
+
+        Long userId = getCurrentUserId();
+
+        try {
+            return ResponseEntity.ok(scoreService.addScoresBatch(activityId, batchRequest, userId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Delete a score
      */
@@ -135,6 +343,17 @@ public class ScoreController {
         }
     }
 
+    /**
+     * Helper method to return a history page with its next cursor in a header
+     */
+    private ResponseEntity<List<ScoreDTO>> toPageResponse(ScorePageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getScores());
+    }
+
     /**
      * Helper method to get the current authenticated user's ID
      */
@@ -1,11 +1,15 @@
 package com.scorevo.controller;
 
+import com.scorevo.event.UserChangedEvent;
 import com.scorevo.model.User;
 import com.scorevo.payload.request.UpdateProfileRequest;
 import com.scorevo.payload.response.MessageResponse;
+import com.scorevo.payload.response.UserSearchHitDTO;
 import com.scorevo.repository.UserRepository;
+import com.scorevo.search.SearchIndex;
 import com.scorevo.security.model.SecurityUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,6 +18,8 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 @CrossOrigin(origins = "http://localhost:4200", maxAge = 3600)
 @RestController
 @RequestMapping("/api/users")
@@ -25,6 +31,12 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping("/profile")
     public ResponseEntity<?> getUserProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -37,6 +49,19 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Typeahead search by username, or by email among people sharing an activity
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<UserSearchHitDTO>> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityUser userDetails = (SecurityUser) authentication.getPrincipal();
+
+        return ResponseEntity.ok(searchIndex.searchUsers(query, userDetails.getUser().getId(), limit));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUserProfile(
             @PathVariable Long id,
@@ -110,6 +135,7 @@ public class UserController {
 
         // Save updated user
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         // Clear password before sending response
         user.setPassword(null);
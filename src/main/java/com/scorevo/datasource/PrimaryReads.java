@@ -0,0 +1,51 @@
+package com.scorevo.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads that must see every committed write on the primary, even when called from a
+ * read-only transaction that is served by a replica, or outside any transaction, where
+ * Spring Data repository methods open read-only ones of their own. Meant for loads into long-lived
+ * in-memory state such as membership sets and leaderboards: those are reloaded right after
+ * the commit that invalidated them, and a lagging replica would have them cache stale rows.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean routing;
+
+    @Autowired
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        // Read-only transactions are what get routed to replicas, so this one is not
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.routing = routingDataSource.getIfAvailable() != null;
+    }
+
+    /**
+     * Without read replicas, where every read already runs on the primary
+     */
+    public PrimaryReads() {
+        this.transactionTemplate = null;
+        this.routing = false;
+    }
+
+    public <T> T read(Supplier<T> read) {
+        // A read-write transaction already reads from the primary
+        if (!routing || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            return read.get();
+        }
+        return transactionTemplate.execute(status -> read.get());
+    }
+}
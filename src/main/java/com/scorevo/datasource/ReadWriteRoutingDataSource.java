@@ -0,0 +1,47 @@
+package com.scorevo.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to the replica pool
+ * and everything else, including work outside any transaction, to the primary. A user
+ * who wrote within the read-your-writes window reads from the primary as well.
+ * <p>
+ * The route is picked when a physical connection is fetched, so this must sit behind a
+ * LazyConnectionDataSourceProxy: transactions only mark themselves read-only after
+ * beginning, and only the proxy defers the fetch until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        // Never quietly fall back to the primary for an unknown route
+        setLenientFallback(false);
+    }
+
+    /**
+     * Where a transaction with the given read-only flag reads from for the current user
+     */
+    public Route routeFor(boolean readOnly) {
+        return readOnly && !tracker.hasRecentWrite() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routeFor(TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+}
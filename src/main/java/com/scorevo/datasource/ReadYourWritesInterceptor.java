@@ -0,0 +1,45 @@
+package com.scorevo.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Starts the caller's read-your-writes window for every request that may write.
+ * Recorded per request rather than per transaction, because score writes can commit on
+ * another request's thread (see ScoreWriteExecutor) where the caller is not known.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesInterceptor(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Before the handler runs, so reads following its own writes in the same request
+        // (such as returning the updated activity) already go to the primary
+        if (mayWrite(request)) {
+            tracker.recordWrite();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        // Restart the window from the last commit, so a slow request does not use it up.
+        // Also after failures: a request can fail after some of its writes committed
+        if (mayWrite(request)) {
+            tracker.recordWrite();
+        }
+    }
+
+    private static boolean mayWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return !HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method);
+    }
+}
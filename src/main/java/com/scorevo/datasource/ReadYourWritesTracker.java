@@ -0,0 +1,64 @@
+package com.scorevo.datasource;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently, so their reads can stay on the primary until
+ * the replicas have caught up with their own changes. Users are keyed by the name of
+ * the authentication on the current thread; anonymous work is never tracked.
+ */
+public class ReadYourWritesTracker {
+
+    // Expired entries are only swept once the map grows past this
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    // Username -> System.nanoTime() of the user's latest write
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Start the current user's read-your-writes window
+     */
+    public void recordWrite() {
+        String user = currentUser();
+        if (user == null || windowNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWrites.put(user, now);
+        if (lastWrites.size() > SWEEP_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    /**
+     * Whether the current user wrote within the window, so replicas may not show it yet
+     */
+    public boolean hasRecentWrite() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(user);
+        return writtenAt != null && System.nanoTime() - writtenAt < windowNanos;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,54 @@
+package com.scorevo.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps transactions that read from a replica from filling the second-level cache. A
+ * lagging replica may still return rows as they were before a commit whose cache entries
+ * were just evicted, and putting those back would serve the stale state to everyone for
+ * the region's whole time-to-live. Such transactions still read cached entries.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    // Looked up lazily: the dialect is installed before the data sources exist
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    public ReplicaAwareJpaDialect(ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (routingDataSource.getObject().routeFor(definition.isReadOnly()) != ReadWriteRoutingDataSource.Route.REPLICA) {
+            return transactionData;
+        }
+
+        // With open-in-view the session outlives the transaction, so restore its mode afterwards
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaTransactionData(transactionData, session, previousCacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replicaData) {
+            replicaData.session().setCacheMode(replicaData.previousCacheMode());
+            transactionData = replicaData.delegate();
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private record ReplicaTransactionData(Object delegate, Session session, CacheMode previousCacheMode) {
+    }
+}
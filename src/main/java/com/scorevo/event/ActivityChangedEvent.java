@@ -0,0 +1,14 @@
+package com.scorevo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when an activity's metadata or participants change.
+ * Score changes publish {@link ScoreChangedEvent} instead.
+ */
+@Data
+@AllArgsConstructor
+public class ActivityChangedEvent {
+    private Long activityId;
+}
@@ -0,0 +1,17 @@
+package com.scorevo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published inside the writing transaction whenever a user's total in an
+ * activity changes. Listeners that keep derived state should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ */
+@Data
+@AllArgsConstructor
+public class ScoreChangedEvent {
+    private Long activityId;
+    private Long userId;
+    private int delta;
+}
@@ -0,0 +1,15 @@
+package com.scorevo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when the materialized totals of an activity are replaced wholesale
+ * (rebuilt, repaired or deleted) rather than changed by score deltas.
+ * A null activity id means the totals of every activity were replaced.
+ */
+@Data
+@AllArgsConstructor
+public class ScoreTotalsResetEvent {
+    private Long activityId;
+}
@@ -0,0 +1,13 @@
+package com.scorevo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when a user signs up or changes their username or email.
+ */
+@Data
+@AllArgsConstructor
+public class UserChangedEvent {
+    private Long userId;
+}
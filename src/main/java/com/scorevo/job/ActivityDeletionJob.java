@@ -0,0 +1,50 @@
+package com.scorevo.job;
+
+import com.scorevo.model.ActivityDeletion;
+import com.scorevo.service.ActivityDeletionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes the rows of tombstoned activities in the background, one bounded chunk per
+ * transaction. Progress is persisted with every chunk, so deletions interrupted by a
+ * restart are picked up again on the first run.
+ */
+@Component
+public class ActivityDeletionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityDeletionJob.class);
+
+    @Autowired
+    private ActivityDeletionService activityDeletionService;
+
+    // Caps the work per run so one huge activity does not hold the scheduler thread for long
+    @Value("${scorevo.deletion.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    @Scheduled(fixedDelayString = "${scorevo.deletion.interval-ms:1000}")
+    public void deletePendingActivities() {
+        int chunks = 0;
+
+        for (Long activityId : activityDeletionService.getPendingDeletions()) {
+            // One activity failing should not hold back the others; it is retried on the next run
+            try {
+                ActivityDeletion deletion;
+                do {
+                    deletion = activityDeletionService.deleteNextChunk(activityId);
+                    chunks++;
+                } while (deletion.getPhase() != ActivityDeletion.Phase.DONE && chunks < maxChunksPerRun);
+            } catch (RuntimeException e) {
+                logger.error("Failed to delete rows of activity {}: {}", activityId, e.getMessage(), e);
+            }
+
+            if (chunks >= maxChunksPerRun) {
+                return;
+            }
+        }
+    }
+}
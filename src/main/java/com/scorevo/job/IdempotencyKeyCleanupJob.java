@@ -0,0 +1,34 @@
+package com.scorevo.job;
+
+import com.scorevo.cache.IdempotencyCache;
+import com.scorevo.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes persisted idempotency keys once they are past their TTL
+ */
+@Component
+public class IdempotencyKeyCleanupJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyCleanupJob.class);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Scheduled(cron = "${scorevo.idempotency.cleanup-cron:0 15 * * * *}")
+    public void deleteExpiredKeys() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(idempotencyCache.getTtl()));
+        if (deleted > 0) {
+            logger.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.scorevo.job;
+
+import com.scorevo.repository.ActivityRepository;
+import com.scorevo.service.ScoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Nightly compaction of score history. Scores older than the horizon are folded into
+ * one checkpoint row per user and activity, and the raw rows move to the archive table,
+ * keeping the hot scores table small without changing any total.
+ */
+@Component
+@ConditionalOnProperty(name = "scorevo.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class ScoreCompactionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreCompactionJob.class);
+
+    @Autowired
+    private ScoreService scoreService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Value("${scorevo.compaction.horizon-days:90}")
+    private int horizonDays;
+
+    @Scheduled(cron = "${scorevo.compaction.cron:0 30 3 * * *}")
+    public void compact() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(horizonDays).atStartOfDay();
+        int archived = 0;
+
+        for (Long activityId : activityRepository.findAllIds()) {
+            // One activity failing should not hold back the others; it is retried on the next run
+            try {
+                archived += scoreService.compactScores(activityId, cutoff);
+            } catch (RuntimeException e) {
+                logger.error("Failed to compact scores of activity {}: {}", activityId, e.getMessage(), e);
+            }
+        }
+
+        logger.info("Compacted scores older than {}, archived {} rows", cutoff, archived);
+    }
+}
@@ -0,0 +1,197 @@
+package com.scorevo.leaderboard;
+
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.ScoreChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.model.Activity;
+import com.scorevo.payload.response.LeaderboardDTO;
+import com.scorevo.projection.ScoreTotalsProjection;
+import com.scorevo.repository.ScoreTotalRepository;
+import com.scorevo.util.LongIntHashMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a {@link RankedIndex} for recently used activities.
+ * Indexes are built lazily on a miss, from the score totals projection when it is enabled
+ * and from the materialized score totals otherwise, and kept current by applying
+ * committed score changes.
+ */
+@Component
+public class LeaderboardEngine {
+
+    private final ScoreTotalRepository scoreTotalRepository;
+    private final PrimaryReads primaryReads;
+
+    // Null unless the score totals projection is enabled
+    private final ScoreTotalsProjection scoreTotalsProjection;
+
+    // Access-ordered so the least recently used activity is evicted first; guarded by this
+    private final LinkedHashMap<Long, RankedIndex> indexes;
+
+    // Activities whose index is being built; true when a change arrived during the build. Guarded by this
+    private final Map<Long, Boolean> loading = new HashMap<>();
+
+    // Score changes per activity from just before their commit until they have been applied.
+    // A build that overlaps one cannot tell whether its totals already include it. Guarded by this
+    private final Map<Long, Integer> inFlight = new HashMap<>();
+
+    @Autowired
+    public LeaderboardEngine(
+            ScoreTotalRepository scoreTotalRepository,
+            PrimaryReads primaryReads,
+            ObjectProvider<ScoreTotalsProjection> scoreTotalsProjection,
+            @Value("${scorevo.leaderboard.max-activities:1000}") int maxActivities) {
+        this.scoreTotalRepository = scoreTotalRepository;
+        this.primaryReads = primaryReads;
+        this.scoreTotalsProjection = scoreTotalsProjection.getIfAvailable();
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RankedIndex> eldest) {
+                return size() > maxActivities;
+            }
+        };
+    }
+
+    /**
+     * Entries at ranking positions [offset, offset + limit)
+     */
+    public LeaderboardDTO getPage(Activity activity, int offset, int limit) {
+        RankedIndex index = getIndex(activity.getId(), activity.getMode());
+        synchronized (index) {
+            return toDTO(activity.getId(), index, index.range(offset, limit));
+        }
+    }
+
+    /**
+     * Entries within the given number of positions above and below a user, or null if the user has no total
+     */
+    public LeaderboardDTO getAround(Activity activity, Long userId, int radius) {
+        RankedIndex index = getIndex(activity.getId(), activity.getMode());
+        synchronized (index) {
+            int position = index.positionOf(userId);
+            if (position < 0) {
+                return null;
+            }
+            int from = Math.max(0, position - radius);
+            return toDTO(activity.getId(), index, index.range(from, position + radius + 1 - from));
+        }
+    }
+
+    /**
+     * Every entry in ranking order, for callers that only have the activity's id and mode
+     */
+    public LeaderboardDTO getStandings(Long activityId, Activity.ActivityMode mode) {
+        RankedIndex index = getIndex(activityId, mode);
+        synchronized (index) {
+            return toDTO(activityId, index, index.range(0, index.size()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public synchronized void onScoreCommitting(ScoreChangedEvent event) {
+        inFlight.merge(event.getActivityId(), 1, Integer::sum);
+        loading.computeIfPresent(event.getActivityId(), (id, stale) -> true);
+    }
+
+    @TransactionalEventListener
+    public void onScoreChanged(ScoreChangedEvent event) {
+        RankedIndex index;
+        synchronized (this) {
+            index = indexes.get(event.getActivityId());
+            if (index == null) {
+                // A build in progress may have read totals from before this change
+                loading.computeIfPresent(event.getActivityId(), (id, stale) -> true);
+                return;
+            }
+        }
+        synchronized (index) {
+            index.add(event.getUserId(), event.getDelta());
+        }
+    }
+
+    // Runs after onScoreChanged on commit, and on rollback
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public synchronized void onScoreCompleted(ScoreChangedEvent event) {
+        inFlight.computeIfPresent(event.getActivityId(), (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScoreTotalsReset(ScoreTotalsResetEvent event) {
+        if (event.getActivityId() == null) {
+            evictAll();
+        } else {
+            evict(event.getActivityId());
+        }
+    }
+
+    /**
+     * Drop the index of an activity so it is rebuilt on next use
+     */
+    public synchronized void evict(Long activityId) {
+        indexes.remove(activityId);
+        loading.computeIfPresent(activityId, (id, stale) -> true);
+    }
+
+    /**
+     * Drop every index so they are rebuilt on next use
+     */
+    public synchronized void evictAll() {
+        indexes.clear();
+        loading.replaceAll((id, stale) -> true);
+    }
+
+    private RankedIndex getIndex(Long activityId, Activity.ActivityMode mode) {
+        synchronized (this) {
+            RankedIndex index = indexes.get(activityId);
+            if (index != null) {
+                return index;
+            }
+            loading.putIfAbsent(activityId, false);
+            if (inFlight.containsKey(activityId)) {
+                // A change may commit before the totals are read but be applied after the index is installed
+                loading.put(activityId, true);
+            }
+        }
+
+        // Penalty points are bad, so PENALTY_BALANCE activities rank the lowest total first
+        RankedIndex index = new RankedIndex(mode != Activity.ActivityMode.PENALTY_BALANCE);
+        LongIntHashMap totals = scoreTotalsProjection != null ? scoreTotalsProjection.getTotals(activityId) : null;
+        if (totals == null) {
+            // Later changes are applied as deltas, so the base must not come from a lagging replica
+            totals = primaryReads.read(() -> scoreTotalRepository.loadTotals(activityId));
+        }
+        totals.forEach(index::put);
+
+        synchronized (this) {
+            Boolean stale = loading.remove(activityId);
+            if (Boolean.FALSE.equals(stale)) {
+                indexes.put(activityId, index);
+            }
+        }
+        return index;
+    }
+
+    private LeaderboardDTO toDTO(Long activityId, RankedIndex index, List<RankedIndex.Entry> entries) {
+        LeaderboardDTO dto = new LeaderboardDTO();
+        dto.setActivityId(activityId);
+        dto.setTotalEntries(index.size());
+        for (RankedIndex.Entry entry : entries) {
+            LeaderboardDTO.EntryDTO entryDTO = new LeaderboardDTO.EntryDTO();
+            entryDTO.setRank(index.rankOfTotal(entry.total()));
+            entryDTO.setUserId(entry.userId());
+            entryDTO.setTotal(entry.total());
+            dto.getEntries().add(entryDTO);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,234 @@
+package com.scorevo.leaderboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Order-statistic index of the user totals of one activity.
+ * Backed by a size-augmented treap ordered by total (then user id), so
+ * updates, rank lookups and selecting the n-th entry are all O(log n).
+ * Not thread-safe; callers synchronize on the instance.
+ */
+public class RankedIndex {
+
+    public record Entry(long userId, int total) {
+    }
+
+    private static final class Node {
+        final long userId;
+        final int total;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long userId, int total, int priority) {
+            this.userId = userId;
+            this.total = total;
+            this.priority = priority;
+        }
+    }
+
+    private final boolean highestFirst;
+    private final Map<Long, Integer> totals = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * @param highestFirst true to rank the highest total first, false to rank the lowest first
+     */
+    public RankedIndex(boolean highestFirst) {
+        this.highestFirst = highestFirst;
+    }
+
+    public int size() {
+        return totals.size();
+    }
+
+    public Integer getTotal(long userId) {
+        return totals.get(userId);
+    }
+
+    /**
+     * Set the total of a user, inserting the user if absent
+     */
+    public void put(long userId, int total) {
+        Integer previous = totals.put(userId, total);
+        if (previous != null) {
+            root = remove(root, previous, userId);
+        }
+        root = insert(root, new Node(userId, total, random.nextInt()));
+    }
+
+    /**
+     * Add a delta to the total of a user, starting from zero if absent
+     */
+    public void add(long userId, int delta) {
+        put(userId, totals.getOrDefault(userId, 0) + delta);
+    }
+
+    public boolean remove(long userId) {
+        Integer previous = totals.remove(userId);
+        if (previous == null) {
+            return false;
+        }
+        root = remove(root, previous, userId);
+        return true;
+    }
+
+    /**
+     * Zero-based position of a user in ranking order, or -1 if absent
+     */
+    public int positionOf(long userId) {
+        Integer total = totals.get(userId);
+        return total == null ? -1 : countBefore(total, userId);
+    }
+
+    /**
+     * One-based competition rank of a user (ties share a rank), or -1 if absent
+     */
+    public int rankOf(long userId) {
+        Integer total = totals.get(userId);
+        return total == null ? -1 : rankOfTotal(total);
+    }
+
+    /**
+     * One-based competition rank that a given total has in this index
+     */
+    public int rankOfTotal(int total) {
+        // Long.MIN_VALUE sorts before every real user id with the same total
+        return countBefore(total, Long.MIN_VALUE) + 1;
+    }
+
+    /**
+     * Entries at positions [offset, offset + limit) in ranking order
+     */
+    public List<Entry> range(int offset, int limit) {
+        List<Entry> entries = new ArrayList<>();
+        int end = Math.min(size(), offset + limit);
+        for (int position = Math.max(0, offset); position < end; position++) {
+            Node node = select(position);
+            entries.add(new Entry(node.userId, node.total));
+        }
+        return entries;
+    }
+
+    private int compare(int totalA, long userA, int totalB, long userB) {
+        if (totalA != totalB) {
+            return highestFirst ? Integer.compare(totalB, totalA) : Integer.compare(totalA, totalB);
+        }
+        return Long.compare(userA, userB);
+    }
+
+    private int countBefore(int total, long userId) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (compare(node.total, node.userId, total, userId) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private Node select(int position) {
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position == leftSize) {
+                return node;
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        throw new IndexOutOfBoundsException("Position out of range");
+    }
+
+    private Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.priority > node.priority) {
+            Node[] parts = split(node, inserted.total, inserted.userId);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            update(inserted);
+            return inserted;
+        }
+        if (compare(inserted.total, inserted.userId, node.total, node.userId) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node remove(Node node, int total, long userId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(total, userId, node.total, node.userId);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, total, userId);
+        } else {
+            node.right = remove(node.right, total, userId);
+        }
+        update(node);
+        return node;
+    }
+
+    // Split into nodes ordered before the key and nodes ordered at or after it
+    private Node[] split(Node node, int total, long userId) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(node.total, node.userId, total, userId) < 0) {
+            Node[] parts = split(node.right, total, userId);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, total, userId);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
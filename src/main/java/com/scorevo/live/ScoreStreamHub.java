@@ -0,0 +1,378 @@
+package com.scorevo.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scorevo.cache.MembershipCache;
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.event.ScoreChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.payload.response.ScoreDeltaDTO;
+import com.scorevo.repository.ScoreTotalRepository;
+import com.scorevo.util.LongIntHashMap;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed score changes out to live scoreboard subscribers over Server-Sent Events.
+ * <p>
+ * Changes are not sent as they arrive. They are summed per activity and user, and a
+ * single thread flushes every changed activity once per interval, so a burst of writes
+ * becomes one frame per activity. Each frame carries the new totals as well as the
+ * deltas, so a client that missed or double-applied a frame is corrected by the next one.
+ * <p>
+ * Subscribers are async servlet responses, so an idle connection holds no thread. Writes
+ * to them block, so the flushing thread only queues frames per subscriber, and a small
+ * pool of sender threads drains each queue in order. A subscriber whose queue grows past
+ * its limit is too slow or silently gone and is dropped; its client reconnects and starts
+ * again from full totals. A subscriber's stream is also closed once they no longer
+ * participate in the activity.
+ */
+@Component
+public class ScoreStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreStreamHub.class);
+
+    static final String TOTALS_EVENT = "totals";
+    static final String DELTA_EVENT = "delta";
+
+    private final ScoreTotalRepository scoreTotalRepository;
+    private final MembershipCache membershipCache;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int maxBacklog;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService sender;
+
+    public ScoreStreamHub(
+            ScoreTotalRepository scoreTotalRepository,
+            MembershipCache membershipCache,
+            ObjectMapper objectMapper,
+            @Value("${scorevo.stream.interval-ms:100}") long intervalMs,
+            @Value("${scorevo.stream.heartbeat-seconds:25}") long heartbeatSeconds,
+            @Value("${scorevo.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${scorevo.stream.sender-threads:4}") int senderThreads,
+            @Value("${scorevo.stream.max-backlog:64}") int maxBacklog) {
+        this.scoreTotalRepository = scoreTotalRepository;
+        this.membershipCache = membershipCache;
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.maxBacklog = maxBacklog;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        // Keeps proxies from closing idle streams and finds subscribers that went away silently
+        flusher.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        // Each subscriber is drained by one sender at a time, so its queue is submitted at most once
+        AtomicInteger senderCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "score-stream-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        sender.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.keySet().forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Open a stream of an activity's totals for one of its participants. The first event
+     * carries all current totals, later events the changes since the previous one.
+     */
+    public SseEmitter subscribe(Long activityId, Long userId) {
+        return subscribe(activityId, userId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Long activityId, Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(activityId, userId, emitter);
+        // Added while the channel is held, so it cannot be dropped as empty in between
+        channels.compute(activityId, (id, channel) -> {
+            Channel current = channel == null ? new Channel() : channel;
+            current.subscribers.put(emitter, subscriber);
+            return current;
+        });
+        emitter.onCompletion(() -> unsubscribe(activityId, emitter));
+        emitter.onTimeout(() -> unsubscribe(activityId, emitter));
+        emitter.onError(e -> unsubscribe(activityId, emitter));
+
+        // Read after subscribing so no change is missed; one seen twice is harmless as frames carry totals
+        String json = toJson(scoreTotalRepository.loadTotals(activityId).toMap());
+        if (json != null) {
+            subscriber.enqueue(frame(TOTALS_EVENT, json));
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onScoreChanged(ScoreChangedEvent event) {
+        // Nothing to collect for activities nobody is watching
+        Channel channel = channels.get(event.getActivityId());
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            channel.pending.addTo(event.getUserId(), event.getDelta());
+        }
+        changed.add(event.getActivityId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        if (!channels.containsKey(event.getActivityId())) {
+            return;
+        }
+        // The membership cache has already dropped the participants this change may have altered
+        flusher.execute(() -> closeNonParticipants(event.getActivityId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScoreTotalsReset(ScoreTotalsResetEvent event) {
+        // Rebuilt totals may differ from what subscribers hold, so resend them in full
+        List<Long> activityIds = event.getActivityId() == null
+                ? List.copyOf(channels.keySet())
+                : List.of(event.getActivityId());
+        flusher.execute(() -> activityIds.forEach(this::resendTotals));
+    }
+
+    private void flushSafely() {
+        // An exception would cancel the periodic flush for good
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush live score frames: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flush() {
+        for (Long activityId : List.copyOf(changed)) {
+            changed.remove(activityId);
+            Channel channel = channels.get(activityId);
+            if (channel == null) {
+                continue;
+            }
+
+            LongIntHashMap deltas;
+            synchronized (channel) {
+                deltas = channel.pending;
+                channel.pending = new LongIntHashMap();
+            }
+            if (deltas.isEmpty()) {
+                continue;
+            }
+
+            // One query per changed activity and interval, however many writes it coalesces
+            List<Long> userIds = new ArrayList<>(deltas.size());
+            deltas.forEach((userId, delta) -> userIds.add(userId));
+            LongIntHashMap totals = new LongIntHashMap(userIds.size());
+            for (Object[] row : scoreTotalRepository.findTotalsByUserIds(activityId, userIds)) {
+                totals.put((Long) row[0], (Integer) row[1]);
+            }
+
+            ScoreDeltaDTO frame = new ScoreDeltaDTO();
+            frame.setActivityId(activityId);
+            deltas.forEach((userId, delta) -> {
+                ScoreDeltaDTO.ChangeDTO change = new ScoreDeltaDTO.ChangeDTO();
+                change.setUserId(userId);
+                change.setDelta(delta);
+                change.setTotal(totals.get(userId, 0));
+                frame.getChanges().add(change);
+            });
+            broadcast(channel, DELTA_EVENT, frame);
+        }
+    }
+
+    private void resendTotals(Long activityId) {
+        Channel channel = channels.get(activityId);
+        if (channel != null) {
+            broadcast(channel, TOTALS_EVENT, scoreTotalRepository.loadTotals(activityId).toMap());
+        }
+    }
+
+    // Removed participants, or everyone once the activity is deleted
+    private void closeNonParticipants(Long activityId) {
+        Channel channel = channels.get(activityId);
+        if (channel == null) {
+            return;
+        }
+        for (Subscriber subscriber : channel.subscribers.values()) {
+            if (!membershipCache.isMember(activityId, subscriber.userId)) {
+                subscriber.close();
+            }
+        }
+    }
+
+    private void heartbeat() {
+        Set<DataWithMediaType> keepalive = SseEmitter.event().comment("keepalive").build();
+        channels.values().forEach(channel -> channel.subscribers.values()
+                .forEach(subscriber -> subscriber.enqueue(keepalive)));
+    }
+
+    private void broadcast(Channel channel, String eventName, Object payload) {
+        // Serialized and framed once, not once per subscriber
+        String json = toJson(payload);
+        if (json == null) {
+            return;
+        }
+        Set<DataWithMediaType> frame = frame(eventName, json);
+        for (Subscriber subscriber : channel.subscribers.values()) {
+            subscriber.enqueue(frame);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize live score frame: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static Set<DataWithMediaType> frame(String eventName, String json) {
+        return SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON).build();
+    }
+
+    private void unsubscribe(Long activityId, SseEmitter emitter) {
+        channels.computeIfPresent(activityId, (id, channel) -> {
+            channel.subscribers.remove(emitter);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    private static final class Channel {
+        private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+        // Deltas summed per user since the last frame; guarded by the channel
+        private LongIntHashMap pending = new LongIntHashMap();
+    }
+
+    /**
+     * One stream and the frames queued for it. Frames are sent by a sender thread in the order
+     * they were queued, and the stream is completed by that thread too: the emitter's writes and
+     * its completion share one lock, which a blocked write would otherwise hold up.
+     */
+    private final class Subscriber implements Runnable {
+        private final Long activityId;
+        private final Long userId;
+        private final SseEmitter emitter;
+
+        // Guarded by this
+        private final ArrayDeque<Set<DataWithMediaType>> backlog = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closing;
+
+        private Subscriber(Long activityId, Long userId, SseEmitter emitter) {
+            this.activityId = activityId;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<DataWithMediaType> frame) {
+            boolean full;
+            boolean drain = false;
+            synchronized (this) {
+                if (closing) {
+                    return;
+                }
+                full = backlog.size() >= maxBacklog;
+                if (!full) {
+                    backlog.add(frame);
+                    drain = !draining;
+                    draining = true;
+                }
+            }
+            if (full) {
+                logger.debug("Dropping live score subscriber of activity {} with {} frames unsent", activityId, maxBacklog);
+                close();
+            } else if (drain) {
+                drainLater();
+            }
+        }
+
+        // Stops taking frames, and completes the stream once the frame being sent, if any, is out
+        void close() {
+            boolean drain;
+            synchronized (this) {
+                if (closing) {
+                    return;
+                }
+                closing = true;
+                backlog.clear();
+                drain = !draining;
+                draining = true;
+            }
+            unsubscribe(activityId, emitter);
+            if (drain) {
+                drainLater();
+            }
+        }
+
+        private void drainLater() {
+            try {
+                sender.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Shutting down, which completes every stream
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Set<DataWithMediaType> frame;
+                synchronized (this) {
+                    if (closing) {
+                        break;
+                    }
+                    frame = backlog.poll();
+                    if (frame == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; the container completes the response
+                    synchronized (this) {
+                        closing = true;
+                        backlog.clear();
+                    }
+                    unsubscribe(activityId, emitter);
+                    return;
+                }
+            }
+            emitter.complete();
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.scorevo.model;
 
+import com.scorevo.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "activities")
+@Table(name = "activities", indexes = {
+        @Index(name = "idx_activities_created", columnList = "created_at, id"),
+        @Index(name = "idx_activities_last_activity", columnList = "last_activity_at, id")
+})
+// Tombstoned activities are invisible to every entity query while their rows are deleted
+@SQLRestriction("deleted_at IS NULL")
+// Loads served from the cache skip the restriction, so tombstoning evicts the activity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ACTIVITIES_REGION)
 @Data
 @NoArgsConstructor
 public class Activity {
@@ -29,6 +40,16 @@ public class Activity {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Time of the latest score, or creation until the first one. Bumped by score writes
+    // with a targeted update, never through this entity, so it cannot overwrite other changes.
+    // Not updatable, so a cached copy holding an older value never writes it back.
+    @Column(name = "last_activity_at", updatable = false)
+    private LocalDateTime lastActivityAt;
+
+    // Set when deletion is requested; ActivityDeletionJob removes the rows afterwards
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @ManyToMany
     @JoinTable(
             name = "activity_participants",
@@ -50,5 +71,6 @@ public class Activity {
     @PrePersist
     public void prePersist() {
         createdAt = LocalDateTime.now();
+        lastActivityAt = createdAt;
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.scorevo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the deletion of a tombstoned activity. The activity's rows are removed
+ * in chunks, one phase per table, and every chunk updates this row in its own
+ * transaction, so a restarted worker resumes where the previous one stopped.
+ */
+@Entity
+@Table(name = "activity_deletions", indexes = {
+        @Index(name = "idx_activity_deletions_phase", columnList = "phase, requested_at")
+})
+@Data
+@NoArgsConstructor
+public class ActivityDeletion {
+
+    // The activity row itself is gone once the deletion completes, so this is not a foreign key
+    @Id
+    @Column(name = "activity_id")
+    private Long activityId;
+
+    @Column(name = "requested_by", nullable = false)
+    private Long requestedBy;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Phase phase;
+
+    // Rows removed so far, over all phases
+    @Column(name = "deleted_rows", nullable = false)
+    private Long deletedRows;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Phases in the order they run: children first, the activity row last
+    public enum Phase {
+        INVITATIONS,
+        SCORES,
+        ARCHIVED_SCORES,
+        ROLLUPS,
+        TOTALS,
+        MEMBERSHIPS,
+        ACTIVITY,
+        DONE
+    }
+}
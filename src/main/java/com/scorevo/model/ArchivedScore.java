@@ -0,0 +1,53 @@
+package com.scorevo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A raw score row moved out of the scores table by compaction. The points
+ * live on in a checkpoint score; this copy keeps the history readable.
+ */
+@Entity
+@Table(name = "scores_archive", indexes = {
+        @Index(name = "idx_scores_archive_activity_time", columnList = "activity_id, timestamp, id"),
+        @Index(name = "idx_scores_archive_activity_user_time", columnList = "activity_id, user_id, timestamp, id")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedScore {
+
+    // Same id the row had in the scores table
+    @Id
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "activity_id", nullable = false)
+    private Activity activity;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private Integer points;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Detached Score view of this row, for code that reads hot and archived history alike
+    public Score toScore() {
+        Score score = new Score();
+        score.setId(id);
+        score.setActivity(activity);
+        score.setUser(user);
+        score.setPoints(points);
+        score.setTimestamp(timestamp);
+        return score;
+    }
+}
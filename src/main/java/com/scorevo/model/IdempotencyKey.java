@@ -0,0 +1,54 @@
+package com.scorevo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Response of a score creation made with an Idempotency-Key header, kept so a retry
+ * of the same request returns it instead of creating the score again.
+ * Keys are scoped to the user who sent them.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created", columnList = "created_at")
+})
+@IdClass(IdempotencyKey.IdempotencyKeyId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String key;
+
+    // Identifies the original request, so a key reused for a different one is refused
+    @Column(nullable = false, length = 100)
+    private String fingerprint;
+
+    // The original ScoreDTO as JSON
+    @Column(nullable = false, length = 2000)
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IdempotencyKeyId implements Serializable {
+        private Long userId;
+        private String key;
+    }
+}
@@ -1,11 +1,16 @@
 package com.scorevo.model;
 
+import com.scorevo.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "roles")
+// Created once on startup and never changed afterwards
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = SecondLevelCacheConfig.ROLES_REGION)
 @Data
 @NoArgsConstructor
 public class Role {
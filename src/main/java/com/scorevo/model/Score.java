@@ -6,13 +6,23 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "scores")
+@Table(name = "scores", indexes = {
+        @Index(name = "idx_scores_activity_time", columnList = "activity_id, timestamp, id"),
+        @Index(name = "idx_scores_activity_user_time", columnList = "activity_id, user_id, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 public class Score {
 
+    public static final String ID_GENERATOR_TABLE = "id_generators";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled table ids: Hibernate reserves a block of ALLOCATION_SIZE ids per round-trip
+    // and can batch the inserts, which IDENTITY columns rule out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "score_id")
+    @TableGenerator(name = "score_id", table = ID_GENERATOR_TABLE, pkColumnName = "generator",
+            valueColumnName = "next_val", pkColumnValue = "scores", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne
@@ -29,9 +39,16 @@ public class Score {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    // Pre-persist hook to set timestamp
+    // Written by compaction: the sum of a user's scores up to this row's timestamp,
+    // standing in for the raw rows moved to the archive. Never part of the score history.
+    @Column(nullable = false)
+    private boolean checkpoint;
+
+    // Pre-persist hook to set timestamp; checkpoints keep the time of the latest score they fold
     @PrePersist
     public void prePersist() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null || !checkpoint) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.scorevo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Points a user scored in an activity within one time bucket.
+ * Maintained in the same transaction as every score write so charts
+ * read one row per bucket instead of bucketing the score history.
+ */
+@Entity
+@Table(name = "score_rollups", indexes = {
+        @Index(name = "idx_score_rollups_series", columnList = "activity_id, bucket, bucket_start")
+})
+@IdClass(ScoreRollup.ScoreRollupId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreRollup {
+
+    @Id
+    @Column(name = "activity_id")
+    private Long activityId;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Bucket bucket;
+
+    // Start of the bucket in server local time
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Integer points;
+
+    // Number of score rows in the bucket
+    @Column(name = "score_count", nullable = false)
+    private Integer scoreCount;
+
+    public enum Bucket {
+        HOUR,
+        DAY,
+        WEEK;
+
+        // Start of the bucket containing the timestamp; weeks start on Monday
+        public LocalDateTime truncate(LocalDateTime timestamp) {
+            return switch (this) {
+                case HOUR -> timestamp.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> timestamp.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> timestamp.truncatedTo(ChronoUnit.DAYS)
+                        .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            };
+        }
+
+        public ChronoUnit unit() {
+            return switch (this) {
+                case HOUR -> ChronoUnit.HOURS;
+                case DAY -> ChronoUnit.DAYS;
+                case WEEK -> ChronoUnit.WEEKS;
+            };
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScoreRollupId implements Serializable {
+        private Long activityId;
+        private Long userId;
+        private Bucket bucket;
+        private LocalDateTime bucketStart;
+    }
+}
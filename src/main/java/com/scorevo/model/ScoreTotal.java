@@ -0,0 +1,41 @@
+package com.scorevo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Materialized running total of a user's points in an activity.
+ * Maintained in the same transaction as every score write so totals
+ * never have to be recomputed from the full score history.
+ */
+@Entity
+@Table(name = "score_totals")
+@IdClass(ScoreTotal.ScoreTotalId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreTotal {
+
+    @Id
+    @Column(name = "activity_id")
+    private Long activityId;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer total;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScoreTotalId implements Serializable {
+        private Long activityId;
+        private Long userId;
+    }
+}
@@ -1,14 +1,22 @@
 package com.scorevo.model;
 
+import com.scorevo.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USERS_REGION)
+// Username to id, so loading the user behind a JWT needs no query
+@NaturalIdCache(region = SecondLevelCacheConfig.USERS_BY_USERNAME_REGION)
 @Data
 @NoArgsConstructor
 public class User {
@@ -17,6 +25,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -34,6 +43,7 @@ public class User {
 
     // Add this field to your existing User class
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USER_ROLES_REGION)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
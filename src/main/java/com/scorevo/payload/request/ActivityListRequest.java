@@ -0,0 +1,33 @@
+package com.scorevo.payload.request;
+
+import com.scorevo.model.Activity;
+import lombok.Data;
+
+/**
+ * Optional query parameters for paging through a user's activities, newest first.
+ * Pass the cursor returned by the previous page, with the same sort, to continue.
+ */
+@Data
+public class ActivityListRequest {
+
+    private String cursor;
+
+    private Integer limit;
+
+    // Only activities of this mode; all modes when absent
+    private Activity.ActivityMode mode;
+
+    private Sort sort;
+
+    // Return at most this many participants per activity, along with the full count
+    private Integer participantsPreview;
+
+    public enum Sort {
+        CREATED_AT,
+        LAST_ACTIVITY
+    }
+
+    public boolean isPaged() {
+        return cursor != null || limit != null || mode != null || sort != null || participantsPreview != null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.scorevo.payload.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchScoreRequest {
+
+    // Items are validated one by one so a bad entry is reported without failing the batch
+    private List<ScoreRequest> scores;
+}
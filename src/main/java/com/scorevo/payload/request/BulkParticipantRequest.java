@@ -0,0 +1,18 @@
+package com.scorevo.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkParticipantRequest {
+
+    public static final int MAX_USERS = 1000;
+
+    @NotEmpty(message = "At least one user id is required")
+    @Size(max = MAX_USERS, message = "At most " + MAX_USERS + " users can be added at once")
+    private List<@NotNull Long> userIds;
+}
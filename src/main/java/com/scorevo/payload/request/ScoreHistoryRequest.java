@@ -0,0 +1,30 @@
+package com.scorevo.payload.request;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional query parameters for paging through score history, newest first.
+ * Pass the cursor returned by the previous page to continue from where it ended.
+ */
+@Data
+public class ScoreHistoryRequest {
+
+    private String cursor;
+
+    private Integer limit;
+
+    // Inclusive lower bound on the score timestamp
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    // Exclusive upper bound on the score timestamp
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    public boolean isPaged() {
+        return cursor != null || limit != null || from != null || to != null;
+    }
+}
@@ -53,19 +53,35 @@ package com.scorevo.payload.response;
 
 import com.scorevo.model.Activity;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class ActivityDTO {
     private Long id;
     private String name;
     private String description;
     private Activity.ActivityMode mode;
     private LocalDateTime createdAt;
+    private LocalDateTime lastActivityAt;
+    // All participants, or only the first few when a preview was requested
     private List<ParticipantDTO> participants = new ArrayList<>();
+    private Integer participantCount;
+
+    // Used by JPQL constructor projections; participants are filled in separately
+    public ActivityDTO(Long id, String name, String description, Activity.ActivityMode mode,
+                       LocalDateTime createdAt, LocalDateTime lastActivityAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.mode = mode;
+        this.createdAt = createdAt;
+        this.lastActivityAt = lastActivityAt;
+    }
 
     @Data
     public static class ParticipantDTO {
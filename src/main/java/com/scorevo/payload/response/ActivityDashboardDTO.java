@@ -0,0 +1,20 @@
+package com.scorevo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityDashboardDTO {
+    private ActivityDTO activity;
+    // Every user with a total, ranked
+    private LeaderboardDTO standings;
+    // Entry of the requesting user in the standings, null until they have a total
+    private LeaderboardDTO.EntryDTO currentUser;
+    // Newest first
+    private List<ScoreDTO> latestScores;
+}
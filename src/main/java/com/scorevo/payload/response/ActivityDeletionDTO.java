@@ -0,0 +1,31 @@
+package com.scorevo.payload.response;
+
+import com.scorevo.model.ActivityDeletion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityDeletionDTO {
+    private Long activityId;
+    private ActivityDeletion.Phase phase;
+    private Long deletedRows;
+    private LocalDateTime requestedAt;
+    private LocalDateTime updatedAt;
+    // Null until the activity row itself has been removed
+    private LocalDateTime completedAt;
+
+    public static ActivityDeletionDTO fromDeletion(ActivityDeletion deletion) {
+        return new ActivityDeletionDTO(
+                deletion.getActivityId(),
+                deletion.getPhase(),
+                deletion.getDeletedRows(),
+                deletion.getRequestedAt(),
+                deletion.getUpdatedAt(),
+                deletion.getCompletedAt());
+    }
+}
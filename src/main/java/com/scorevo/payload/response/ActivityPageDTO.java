@@ -0,0 +1,14 @@
+package com.scorevo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ActivityPageDTO {
+    private List<ActivityDTO> activities;
+    // Null when there are no older activities
+    private String nextCursor;
+}
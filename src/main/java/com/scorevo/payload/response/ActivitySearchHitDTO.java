@@ -0,0 +1,16 @@
+package com.scorevo.payload.response;
+
+import com.scorevo.model.Activity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivitySearchHitDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private Activity.ActivityMode mode;
+}
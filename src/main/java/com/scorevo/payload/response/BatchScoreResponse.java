@@ -0,0 +1,39 @@
+package com.scorevo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchScoreResponse {
+    private int accepted;
+    private int rejected;
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Status status;
+        private ScoreDTO score;
+        private String error;
+
+        public static ItemResult created(int index, ScoreDTO score) {
+            return new ItemResult(index, Status.CREATED, score, null);
+        }
+
+        public static ItemResult rejected(int index, String error) {
+            return new ItemResult(index, Status.REJECTED, null, error);
+        }
+    }
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+}
@@ -0,0 +1,16 @@
+package com.scorevo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkParticipantResponse {
+    private List<Long> added;
+    // Requested ids that are already participants or match no user
+    private List<Long> skipped;
+}
@@ -0,0 +1,20 @@
+package com.scorevo.payload.response;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class LeaderboardDTO {
+    private Long activityId;
+    private int totalEntries;
+    private List<EntryDTO> entries = new ArrayList<>();
+
+    @Data
+    public static class EntryDTO {
+        private int rank;
+        private Long userId;
+        private Integer total;
+    }
+}
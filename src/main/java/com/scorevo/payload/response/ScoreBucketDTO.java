@@ -0,0 +1,17 @@
+package com.scorevo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreBucketDTO {
+    private LocalDateTime bucketStart;
+    private Long userId;
+    private Integer points;
+    private Integer scores;
+}
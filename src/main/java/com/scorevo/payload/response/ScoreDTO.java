@@ -1,11 +1,15 @@
 package com.scorevo.payload.response;
 
 import com.scorevo.model.Score;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ScoreDTO {
     private Long id;
     private Long activityId;
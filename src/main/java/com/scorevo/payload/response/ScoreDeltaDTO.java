@@ -0,0 +1,23 @@
+package com.scorevo.payload.response;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One live scoreboard frame: the users whose total changed since the previous frame,
+ * with the summed delta and the total after it
+ */
+@Data
+public class ScoreDeltaDTO {
+    private Long activityId;
+    private List<ChangeDTO> changes = new ArrayList<>();
+
+    @Data
+    public static class ChangeDTO {
+        private Long userId;
+        private int delta;
+        private Integer total;
+    }
+}
@@ -0,0 +1,14 @@
+package com.scorevo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ScorePageDTO {
+    private List<ScoreDTO> scores;
+    // Null when there are no older scores in the requested range
+    private String nextCursor;
+}
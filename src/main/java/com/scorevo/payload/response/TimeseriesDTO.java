@@ -0,0 +1,21 @@
+package com.scorevo.payload.response;
+
+import com.scorevo.model.ScoreRollup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeseriesDTO {
+    private Long activityId;
+    private ScoreRollup.Bucket bucket;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // One entry per user per non-empty bucket, oldest first
+    private List<ScoreBucketDTO> buckets;
+}
@@ -0,0 +1,15 @@
+package com.scorevo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchHitDTO {
+    private Long id;
+    private String username;
+    // Only shown for users who share an activity with the searcher, as in participant lists
+    private String email;
+}
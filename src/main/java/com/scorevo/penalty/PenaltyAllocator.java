@@ -0,0 +1,156 @@
+package com.scorevo.penalty;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Decides how a new penalty in PENALTY_BALANCE mode is offset against the positive
+ * balances of the other participants. Every policy breaks ties by user id, so the
+ * result depends only on the candidates and never on the order they are passed in.
+ * <p>
+ * Points are conserved: the offsets plus the remaining points always add up to the
+ * penalty, and no candidate is offset by more than its balance.
+ */
+@Component
+public class PenaltyAllocator {
+
+    public enum Policy {
+        // The highest balance is offset first, as far as it goes
+        LARGEST_FIRST,
+        // The balance that has gone longest without a new score is offset first
+        OLDEST_FIRST,
+        // The penalty is split across all balances in proportion to their size
+        PROPORTIONAL;
+
+        public boolean ordersByAge() {
+            return this == OLDEST_FIRST;
+        }
+    }
+
+    /**
+     * A participant with a positive balance. lastScoredAt is only used by OLDEST_FIRST; null sorts first.
+     */
+    public record Candidate(long userId, int balance, LocalDateTime lastScoredAt) {
+    }
+
+    /**
+     * Points taken off one participant's balance
+     */
+    public record Offset(long userId, int amount) {
+    }
+
+    /**
+     * Offsets in the order they were allocated, and the points left for the penalized user
+     */
+    public record Allocation(List<Offset> offsets, int remaining) {
+    }
+
+    private static final Comparator<Candidate> BY_USER = Comparator.comparingLong(Candidate::userId);
+
+    private static final Comparator<Candidate> LARGEST_BALANCE =
+            Comparator.comparingInt(Candidate::balance).reversed().thenComparing(BY_USER);
+
+    private static final Comparator<Candidate> LEAST_RECENTLY_SCORED =
+            Comparator.comparing(Candidate::lastScoredAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(BY_USER);
+
+    private final Policy policy;
+
+    @Autowired
+    public PenaltyAllocator(@Value("${scorevo.penalty.allocation-policy:LARGEST_FIRST}") Policy policy) {
+        this.policy = policy;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Allocate a penalty of the given points against the candidates' balances
+     */
+    public Allocation allocate(int points, List<Candidate> candidates) {
+        for (Candidate candidate : candidates) {
+            if (candidate.balance() <= 0) {
+                throw new IllegalArgumentException("Candidate balances must be positive");
+            }
+        }
+        if (points <= 0 || candidates.isEmpty()) {
+            return new Allocation(List.of(), points);
+        }
+
+        return switch (policy) {
+            case LARGEST_FIRST -> allocateInOrder(points, candidates, LARGEST_BALANCE);
+            case OLDEST_FIRST -> allocateInOrder(points, candidates, LEAST_RECENTLY_SCORED);
+            case PROPORTIONAL -> allocateProportionally(points, candidates);
+        };
+    }
+
+    // Offsets whole balances in priority order; only the candidates actually reached are popped
+    private static Allocation allocateInOrder(int points, List<Candidate> candidates, Comparator<Candidate> order) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(candidates.size(), order);
+        queue.addAll(candidates);
+
+        List<Offset> offsets = new ArrayList<>();
+        int remaining = points;
+        while (remaining > 0 && !queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            int amount = Math.min(candidate.balance(), remaining);
+            offsets.add(new Offset(candidate.userId(), amount));
+            remaining -= amount;
+        }
+        return new Allocation(offsets, remaining);
+    }
+
+    // Largest remainder method: floor shares first, then one more point to the largest remainders
+    private static Allocation allocateProportionally(int points, List<Candidate> candidates) {
+        List<Candidate> byUser = new ArrayList<>(candidates);
+        byUser.sort(BY_USER);
+
+        long totalBalance = 0;
+        for (Candidate candidate : byUser) {
+            totalBalance += candidate.balance();
+        }
+
+        List<Offset> offsets = new ArrayList<>(byUser.size());
+        if (points >= totalBalance) {
+            for (Candidate candidate : byUser) {
+                offsets.add(new Offset(candidate.userId(), candidate.balance()));
+            }
+            return new Allocation(offsets, (int) (points - totalBalance));
+        }
+
+        // Shares stay below each balance because points < totalBalance, so one extra point never overshoots
+        int[] shares = new int[byUser.size()];
+        long[] remainders = new long[byUser.size()];
+        long allocated = 0;
+        for (int i = 0; i < byUser.size(); i++) {
+            long exact = (long) points * byUser.get(i).balance();
+            shares[i] = (int) (exact / totalBalance);
+            remainders[i] = exact % totalBalance;
+            allocated += shares[i];
+        }
+
+        PriorityQueue<Integer> largestRemainders = new PriorityQueue<>(byUser.size(),
+                Comparator.<Integer>comparingLong(i -> remainders[i]).reversed().thenComparingInt(i -> i));
+        for (int i = 0; i < byUser.size(); i++) {
+            largestRemainders.add(i);
+        }
+        for (long left = points - allocated; left > 0; left--) {
+            shares[largestRemainders.poll()]++;
+        }
+
+        for (int i = 0; i < byUser.size(); i++) {
+            if (shares[i] > 0) {
+                offsets.add(new Offset(byUser.get(i).userId(), shares[i]));
+            }
+        }
+        return new Allocation(offsets, 0);
+    }
+}
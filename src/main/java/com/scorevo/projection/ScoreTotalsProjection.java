@@ -0,0 +1,236 @@
+package com.scorevo.projection;
+
+import com.scorevo.event.ScoreChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.repository.ScoreTotalRepository;
+import com.scorevo.util.LongIntHashMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * In-memory projection of every activity's user totals, kept up to date from committed
+ * score changes and saved to a snapshot on clean shutdown.
+ * <p>
+ * Scores are still written to the database only, and the projection follows those commits;
+ * it is not a write-ahead log. The snapshot only lets the projection (and the leaderboards
+ * built from it) come back after a planned restart without reading the score tables. It is
+ * deleted once loaded, so after a crash there is none and the projection is reloaded from
+ * the materialized totals instead of from a snapshot that missed the last changes.
+ */
+@Component
+@ConditionalOnProperty(name = "scorevo.projection.enabled", havingValue = "true")
+public class ScoreTotalsProjection {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreTotalsProjection.class);
+
+    static final String SNAPSHOT_FILE = "score-totals.snapshot";
+
+    private static final int SNAPSHOT_MAGIC = 0x53435450;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final ScoreTotalRepository scoreTotalRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Guarded by this
+    private final Map<Long, LongIntHashMap> projection = new HashMap<>();
+    private boolean open;
+
+    public ScoreTotalsProjection(
+            ScoreTotalRepository scoreTotalRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${scorevo.projection.dir:projection}") String directory) {
+        this.scoreTotalRepository = scoreTotalRepository;
+        this.directory = Path.of(directory);
+        // Reloads run after the triggering transaction has committed, so they need one of their own.
+        // Not read-only, so they read from the primary: replicas may not have that commit yet
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(directory);
+        Path path = directory.resolve(SNAPSHOT_FILE);
+
+        boolean loaded = Files.exists(path) && loadSnapshot(path);
+        // Only a clean shutdown writes the next one, so a crash from here on never finds this one again
+        Files.deleteIfExists(path);
+        if (!loaded) {
+            reloadAll();
+        }
+        open = true;
+
+        logger.info("Score totals projection opened with {} activities from the {} in {} ms",
+                projection.size(), loaded ? "snapshot" : "database", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        // Changes committed after this are missing from the snapshot, so stop taking them
+        open = false;
+        writeSnapshot();
+    }
+
+    /**
+     * Copy of the user totals of an activity, or null if the projection holds no totals for it
+     */
+    public synchronized LongIntHashMap getTotals(Long activityId) {
+        LongIntHashMap totals = projection.get(activityId);
+        if (totals == null) {
+            return null;
+        }
+        LongIntHashMap copy = new LongIntHashMap(totals.size());
+        totals.forEach(copy::put);
+        return copy;
+    }
+
+    // Runs before other listeners, so a leaderboard rebuilt from the projection sees this change
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public synchronized void onScoreChanged(ScoreChangedEvent event) {
+        if (!open) {
+            return;
+        }
+        projection.computeIfAbsent(event.getActivityId(), id -> new LongIntHashMap())
+                .addTo(event.getUserId(), event.getDelta());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScoreTotalsReset(ScoreTotalsResetEvent event) {
+        if (event.getActivityId() == null) {
+            synchronized (this) {
+                if (open) {
+                    reloadAll();
+                }
+            }
+            return;
+        }
+
+        Long activityId = event.getActivityId();
+        LongIntHashMap totals = transactionTemplate.execute(status -> scoreTotalRepository.loadTotals(activityId));
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            if (totals.isEmpty()) {
+                projection.remove(activityId);
+            } else {
+                projection.put(activityId, totals);
+            }
+        }
+    }
+
+    private void reloadAll() {
+        projection.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = scoreTotalRepository.streamAllTotals()) {
+                rows.forEach(row -> projection.computeIfAbsent((Long) row[0], id -> new LongIntHashMap())
+                        .put((Long) row[1], (Integer) row[2]));
+            }
+        });
+    }
+
+    // False if the snapshot could not be used, leaving the projection empty
+    private boolean loadSnapshot(Path path) {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warn("Ignoring score totals snapshot {} with an unknown format", path);
+                return false;
+            }
+            int activities = in.readInt();
+            Map<Long, LongIntHashMap> loaded = new HashMap<>(Math.max(16, activities * 2));
+            for (int a = 0; a < activities; a++) {
+                long activityId = in.readLong();
+                int count = in.readInt();
+                LongIntHashMap totals = new LongIntHashMap(count);
+                for (int i = 0; i < count; i++) {
+                    totals.put(in.readLong(), in.readInt());
+                }
+                loaded.put(activityId, totals);
+            }
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                logger.warn("Ignoring corrupt score totals snapshot {}", path);
+                return false;
+            }
+            projection.putAll(loaded);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable score totals snapshot {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32C crc = new CRC32C();
+            DataOutputStream data = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16), crc));
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(FORMAT_VERSION);
+            data.writeInt(projection.size());
+            for (Map.Entry<Long, LongIntHashMap> entry : projection.entrySet()) {
+                data.writeLong(entry.getKey());
+                data.writeInt(entry.getValue().size());
+                IOException[] failure = new IOException[1];
+                entry.getValue().forEach((userId, total) -> {
+                    try {
+                        data.writeLong(userId);
+                        data.writeInt(total);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+            data.writeInt((int) crc.getValue());
+            data.flush();
+            out.force(true);
+        }
+        // The next startup sees either no snapshot or this whole one, never a partial file
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,14 @@
+package com.scorevo.repository;
+
+import com.scorevo.model.ActivityDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ActivityDeletionRepository extends JpaRepository<ActivityDeletion, Long> {
+
+    @Query("SELECT d.activityId FROM ActivityDeletion d " +
+            "WHERE d.phase <> com.scorevo.model.ActivityDeletion$Phase.DONE ORDER BY d.requestedAt")
+    List<Long> findPendingIds();
+}
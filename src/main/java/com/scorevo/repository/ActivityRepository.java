@@ -1,9 +1,119 @@
 package com.scorevo.repository;
 
 import com.scorevo.model.Activity;
+import com.scorevo.payload.response.ActivityDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ActivityRepository extends JpaRepository<Activity, Long> {
     List<Activity> findByParticipantsId(Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT a.id FROM Activity a")
+    List<Long> findAllIds();
+
+    @Query("SELECT a.id FROM Activity a JOIN a.participants p WHERE p.id = :userId")
+    List<Long> findIdsByParticipantId(@Param("userId") Long userId);
+
+    // Answered from the activity_participants primary key, without loading the participants
+    boolean existsByIdAndParticipantsId(Long activityId, Long userId);
+
+    @Query("SELECT p.id FROM Activity a JOIN a.participants p WHERE a.id = :activityId ORDER BY p.id")
+    List<Long> findParticipantIds(@Param("activityId") Long activityId, Limit limit);
+
+    // The given users that exist and do not participate yet, as one IN lookup with an anti-join.
+    // Ordered so that overlapping bulk inserts lock the same rows in the same order
+    @Query("SELECT u.id FROM User u WHERE u.id IN :userIds AND NOT EXISTS " +
+            "(SELECT 1 FROM Activity a JOIN a.participants p WHERE a.id = :activityId AND p.id = u.id) ORDER BY u.id")
+    List<Long> findNonParticipantIds(@Param("activityId") Long activityId, @Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT p.id FROM Activity a JOIN a.participants p WHERE a.id = :activityId AND p.id IN :userIds")
+    List<Long> findParticipantIdsIn(@Param("activityId") Long activityId, @Param("userIds") Collection<Long> userIds);
+
+    String ACTIVITY_DTO = "SELECT new com.scorevo.payload.response.ActivityDTO(" +
+            "a.id, a.name, a.description, a.mode, a.createdAt, a.lastActivityAt) ";
+
+    // Every live activity and membership, for rebuilding the search index
+    @Query(ACTIVITY_DTO + "FROM Activity a")
+    List<ActivityDTO> findAllActivityDTOs();
+
+    @Query("SELECT a.id, p.id FROM Activity a JOIN a.participants p")
+    List<Object[]> findAllParticipantPairs();
+
+    // Read model: activity columns only, participants come from findParticipantRows
+    @Query(ACTIVITY_DTO + "FROM Activity a JOIN a.participants p WHERE p.id = :userId ORDER BY a.id")
+    List<ActivityDTO> findActivityDTOsByParticipantId(@Param("userId") Long userId);
+
+    @Query(ACTIVITY_DTO + "FROM Activity a WHERE a.id = :activityId")
+    Optional<ActivityDTO> findActivityDTOById(@Param("activityId") Long activityId);
+
+    // Keyset pages of a user's activities, newest first; a null mode matches every mode
+    @Query(ACTIVITY_DTO + "FROM Activity a JOIN a.participants p WHERE p.id = :userId " +
+            "AND (:mode IS NULL OR a.mode = :mode) " +
+            "AND a.createdAt <= :cursorTime AND (a.createdAt < :cursorTime OR a.id < :cursorId) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ActivityDTO> findActivityDTOPageByCreatedAt(@Param("userId") Long userId,
+                                                     @Param("mode") Activity.ActivityMode mode,
+                                                     @Param("cursorTime") LocalDateTime cursorTime,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Limit limit);
+
+    @Query(ACTIVITY_DTO + "FROM Activity a JOIN a.participants p WHERE p.id = :userId " +
+            "AND (:mode IS NULL OR a.mode = :mode) " +
+            "AND a.lastActivityAt <= :cursorTime AND (a.lastActivityAt < :cursorTime OR a.id < :cursorId) " +
+            "ORDER BY a.lastActivityAt DESC, a.id DESC")
+    List<ActivityDTO> findActivityDTOPageByLastActivityAt(@Param("userId") Long userId,
+                                                          @Param("mode") Activity.ActivityMode mode,
+                                                          @Param("cursorTime") LocalDateTime cursorTime,
+                                                          @Param("cursorId") Long cursorId,
+                                                          Limit limit);
+
+    // Participants of all the given activities in one query, grouped by activity
+    @Query("SELECT new com.scorevo.repository.ActivityRepository$ParticipantRow(a.id, p.id, p.username, p.email) " +
+            "FROM Activity a JOIN a.participants p WHERE a.id IN :activityIds ORDER BY a.id, p.id")
+    List<ParticipantRow> findParticipantRows(@Param("activityIds") Collection<Long> activityIds);
+
+    // The first participants by id of each given activity, without reading the rest
+    @Query("SELECT new com.scorevo.repository.ActivityRepository$ParticipantRow(r.activityId, r.userId, r.username, r.email) " +
+            "FROM (SELECT a.id AS activityId, p.id AS userId, p.username AS username, p.email AS email, " +
+            "ROW_NUMBER() OVER (PARTITION BY a.id ORDER BY p.id) AS position " +
+            "FROM Activity a JOIN a.participants p WHERE a.id IN :activityIds) r " +
+            "WHERE r.position <= :perActivity ORDER BY r.activityId, r.userId")
+    List<ParticipantRow> findParticipantPreviewRows(@Param("activityIds") Collection<Long> activityIds,
+                                                    @Param("perActivity") long perActivity);
+
+    // [activityId, participant count] per given activity
+    @Query("SELECT a.id, COUNT(p) FROM Activity a JOIN a.participants p WHERE a.id IN :activityIds GROUP BY a.id")
+    List<Object[]> countParticipants(@Param("activityIds") Collection<Long> activityIds);
+
+    // Only ever moves forward, so concurrent writers cannot roll it back. Runs on every
+    // score write, so it is native SQL on a space of its own: an update of Activity would
+    // empty the whole activities cache region, and cached entities never read this column.
+    @Modifying
+    @Query(value = "UPDATE activities SET last_activity_at = :at WHERE id = :activityId " +
+            "AND (last_activity_at IS NULL OR last_activity_at < :at)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "activities.last_activity_at"))
+    int touchLastActivity(@Param("activityId") Long activityId, @Param("at") LocalDateTime at);
+
+    // Activities from before last activity was tracked: their latest hot score, else creation
+    @Modifying
+    @Transactional
+    @Query("UPDATE Activity a SET a.lastActivityAt = COALESCE(" +
+            "(SELECT MAX(s.timestamp) FROM Score s WHERE s.activity.id = a.id), a.createdAt) " +
+            "WHERE a.lastActivityAt IS NULL")
+    int backfillLastActivityAt();
+
+    record ParticipantRow(Long activityId, Long userId, String username, String email) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.scorevo.repository;
+
+import com.scorevo.model.ArchivedScore;
+import com.scorevo.payload.response.ScoreDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedScoreRepository extends JpaRepository<ArchivedScore, Long> {
+
+    @Query("SELECT a FROM ArchivedScore a JOIN FETCH a.user WHERE a.activity.id = :activityId " +
+            "ORDER BY a.timestamp, a.id")
+    List<ArchivedScore> findByActivityId(@Param("activityId") Long activityId);
+
+    @Query("SELECT a FROM ArchivedScore a JOIN FETCH a.user WHERE a.activity.id = :activityId AND a.user.id = :userId " +
+            "ORDER BY a.timestamp, a.id")
+    List<ArchivedScore> findByActivityIdAndUserId(@Param("activityId") Long activityId, @Param("userId") Long userId);
+
+    // Newest archived scores as DTOs, with the same shape as ScoreRepository.findLatestDTOs
+    @Query("SELECT new com.scorevo.payload.response.ScoreDTO(a.id, a.activity.id, a.user.id, a.user.username, " +
+            "a.points, a.timestamp) FROM ArchivedScore a WHERE a.activity.id = :activityId " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<ScoreDTO> findLatestDTOs(@Param("activityId") Long activityId, Limit limit);
+
+    // Keyset page, newest first, with the same bounds and cursor as ScoreRepository.findPageByActivityId
+    @Query("SELECT a FROM ArchivedScore a JOIN FETCH a.user WHERE a.activity.id = :activityId " +
+            "AND a.timestamp >= :from AND a.timestamp < :to " +
+            "AND a.timestamp <= :cursorTime AND (a.timestamp < :cursorTime OR a.id < :cursorId) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<ArchivedScore> findPageByActivityId(@Param("activityId") Long activityId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("cursorTime") LocalDateTime cursorTime,
+                                             @Param("cursorId") Long cursorId,
+                                             Limit limit);
+
+    @Query("SELECT a FROM ArchivedScore a JOIN FETCH a.user WHERE a.activity.id = :activityId AND a.user.id = :userId " +
+            "AND a.timestamp >= :from AND a.timestamp < :to " +
+            "AND a.timestamp <= :cursorTime AND (a.timestamp < :cursorTime OR a.id < :cursorId) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<ArchivedScore> findPageByActivityIdAndUserId(@Param("activityId") Long activityId,
+                                                      @Param("userId") Long userId,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to,
+                                                      @Param("cursorTime") LocalDateTime cursorTime,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Limit limit);
+
+    // Copies the raw (non-checkpoint) scores older than the cutoff, keeping their ids
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO ArchivedScore (id, activity, user, points, timestamp, archivedAt) " +
+            "SELECT s.id, s.activity, s.user, s.points, s.timestamp, :archivedAt FROM Score s " +
+            "WHERE s.activity.id = :activityId AND s.timestamp < :cutoff AND s.checkpoint = false")
+    int archiveScoresBefore(@Param("activityId") Long activityId,
+                            @Param("cutoff") LocalDateTime cutoff,
+                            @Param("archivedAt") LocalDateTime archivedAt);
+}
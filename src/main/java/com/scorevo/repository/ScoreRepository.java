@@ -1,20 +1,93 @@
 package com.scorevo.repository;
 
 import com.scorevo.model.Score;
+import com.scorevo.payload.response.ScoreDTO;
+import com.scorevo.util.LongIntHashMap;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ScoreRepository extends JpaRepository<Score, Long> {
-    List<Score> findByActivityId(Long activityId);
-    List<Score> findByActivityIdAndUserId(Long activityId, Long userId);
+    // Score history excludes checkpoint rows; their points are already in the archived scores they replaced
+    @Query("SELECT s FROM Score s WHERE s.activity.id = :activityId AND s.checkpoint = false ORDER BY s.timestamp, s.id")
+    List<Score> findByActivityId(@Param("activityId") Long activityId);
+
+    @Query("SELECT s FROM Score s WHERE s.activity.id = :activityId AND s.user.id = :userId AND s.checkpoint = false " +
+            "ORDER BY s.timestamp, s.id")
+    List<Score> findByActivityIdAndUserId(@Param("activityId") Long activityId, @Param("userId") Long userId);
+
+    @Query("SELECT s.activity.id FROM Score s WHERE s.id = :scoreId")
+    Optional<Long> findActivityIdById(@Param("scoreId") Long scoreId);
+
+    // Newest scores as DTOs, for the activity dashboard
+    @Query("SELECT new com.scorevo.payload.response.ScoreDTO(s.id, s.activity.id, s.user.id, s.user.username, " +
+            "s.points, s.timestamp) FROM Score s WHERE s.activity.id = :activityId AND s.checkpoint = false " +
+            "ORDER BY s.timestamp DESC, s.id DESC")
+    List<ScoreDTO> findLatestDTOs(@Param("activityId") Long activityId, Limit limit);
+
+    // Keyset page, newest first: scores in [from, to) strictly older than the (cursorTime, cursorId) position
+    @Query("SELECT s FROM Score s JOIN FETCH s.user WHERE s.activity.id = :activityId AND s.checkpoint = false " +
+            "AND s.timestamp >= :from AND s.timestamp < :to " +
+            "AND s.timestamp <= :cursorTime AND (s.timestamp < :cursorTime OR s.id < :cursorId) " +
+            "ORDER BY s.timestamp DESC, s.id DESC")
+    List<Score> findPageByActivityId(@Param("activityId") Long activityId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("cursorTime") LocalDateTime cursorTime,
+                                     @Param("cursorId") Long cursorId,
+                                     Limit limit);
+
+    @Query("SELECT s FROM Score s JOIN FETCH s.user WHERE s.activity.id = :activityId AND s.user.id = :userId " +
+            "AND s.checkpoint = false AND s.timestamp >= :from AND s.timestamp < :to " +
+            "AND s.timestamp <= :cursorTime AND (s.timestamp < :cursorTime OR s.id < :cursorId) " +
+            "ORDER BY s.timestamp DESC, s.id DESC")
+    List<Score> findPageByActivityIdAndUserId(@Param("activityId") Long activityId,
+                                              @Param("userId") Long userId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("cursorTime") LocalDateTime cursorTime,
+                                              @Param("cursorId") Long cursorId,
+                                              Limit limit);
+
+    // Returns [userId, sum of points] rows aggregated by the database, without hydrating Score entities
+    @Query("SELECT s.user.id, SUM(s.points) FROM Score s WHERE s.activity.id = :activityId GROUP BY s.user.id")
+    List<Object[]> sumPointsByUser(@Param("activityId") Long activityId);
+
+    default LongIntHashMap aggregatePointsByUser(Long activityId) {
+        List<Object[]> rows = sumPointsByUser(activityId);
+        LongIntHashMap totals = new LongIntHashMap(rows.size());
+        for (Object[] row : rows) {
+            totals.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return totals;
+    }
+
+    @Query("SELECT COUNT(s) FROM Score s WHERE s.activity.id = :activityId AND s.timestamp < :cutoff " +
+            "AND s.checkpoint = false")
+    long countScoresBefore(@Param("activityId") Long activityId, @Param("cutoff") LocalDateTime cutoff);
+
+    // Returns [userId, sum of points, latest timestamp] over every row older than the cutoff, earlier checkpoints included
+    @Query("SELECT s.user.id, SUM(s.points), MAX(s.timestamp) FROM Score s " +
+            "WHERE s.activity.id = :activityId AND s.timestamp < :cutoff GROUP BY s.user.id")
+    List<Object[]> foldScoresBefore(@Param("activityId") Long activityId, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Score s WHERE s.activity.id = :activityId AND s.timestamp < :cutoff")
+    int deleteScoresBefore(@Param("activityId") Long activityId, @Param("cutoff") LocalDateTime cutoff);
 
     @Modifying
     @Transactional
     @Query("DELETE FROM Score s WHERE s.activity.id = :activityId")
     void deleteByActivityId(@Param("activityId") Long activityId);
-}
\ No newline at end of file
+
+    // Returns [userId, latest timestamp] rows; served from the (activity_id, user_id, timestamp) index
+    @Query("SELECT s.user.id, MAX(s.timestamp) FROM Score s WHERE s.activity.id = :activityId GROUP BY s.user.id")
+    List<Object[]> findLastScoredAtByUser(@Param("activityId") Long activityId);
+}
@@ -0,0 +1,51 @@
+package com.scorevo.repository;
+
+import com.scorevo.model.ScoreRollup;
+import com.scorevo.payload.response.ScoreBucketDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ScoreRollupRepository extends JpaRepository<ScoreRollup, ScoreRollup.ScoreRollupId> {
+
+    // Bucket starts in [from, to), oldest first
+    @Query("SELECT new com.scorevo.payload.response.ScoreBucketDTO(r.bucketStart, r.userId, r.points, r.scoreCount) " +
+            "FROM ScoreRollup r WHERE r.activityId = :activityId AND r.bucket = :bucket " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart, r.userId")
+    List<ScoreBucketDTO> findSeries(@Param("activityId") Long activityId,
+                                    @Param("bucket") ScoreRollup.Bucket bucket,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.scorevo.payload.response.ScoreBucketDTO(r.bucketStart, r.userId, r.points, r.scoreCount) " +
+            "FROM ScoreRollup r WHERE r.activityId = :activityId AND r.bucket = :bucket AND r.userId = :userId " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<ScoreBucketDTO> findUserSeries(@Param("activityId") Long activityId,
+                                        @Param("bucket") ScoreRollup.Bucket bucket,
+                                        @Param("userId") Long userId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    // Flushes first so a rollup inserted earlier in the same transaction is seen and incremented
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ScoreRollup r SET r.points = r.points + :points, r.scoreCount = r.scoreCount + :count " +
+            "WHERE r.activityId = :activityId AND r.userId = :userId " +
+            "AND r.bucket = :bucket AND r.bucketStart = :bucketStart")
+    int incrementRollup(@Param("activityId") Long activityId,
+                        @Param("userId") Long userId,
+                        @Param("bucket") ScoreRollup.Bucket bucket,
+                        @Param("bucketStart") LocalDateTime bucketStart,
+                        @Param("points") int points,
+                        @Param("count") int count);
+
+    // Clears the persistence context so rebuilt rows can be persisted under the same ids
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM ScoreRollup r WHERE r.activityId = :activityId")
+    void deleteByActivityId(@Param("activityId") Long activityId);
+}
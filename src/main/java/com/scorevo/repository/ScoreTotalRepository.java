@@ -0,0 +1,65 @@
+package com.scorevo.repository;
+
+import com.scorevo.model.ScoreTotal;
+import com.scorevo.util.LongIntHashMap;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ScoreTotalRepository extends JpaRepository<ScoreTotal, ScoreTotal.ScoreTotalId> {
+
+    // Returns [userId, total] rows; read as scalars so results are never stale managed entities
+    @Query("SELECT t.userId, t.total FROM ScoreTotal t WHERE t.activityId = :activityId")
+    List<Object[]> findTotalsByActivityId(@Param("activityId") Long activityId);
+
+    // Returns [userId, total] rows of the given users only
+    @Query("SELECT t.userId, t.total FROM ScoreTotal t WHERE t.activityId = :activityId AND t.userId IN :userIds")
+    List<Object[]> findTotalsByUserIds(@Param("activityId") Long activityId, @Param("userIds") Collection<Long> userIds);
+
+    // Returns [activityId, userId, total] rows for every activity; must be consumed inside a transaction
+    @Query("SELECT t.activityId, t.userId, t.total FROM ScoreTotal t")
+    Stream<Object[]> streamAllTotals();
+
+    default LongIntHashMap loadTotals(Long activityId) {
+        List<Object[]> rows = findTotalsByActivityId(activityId);
+        LongIntHashMap totals = new LongIntHashMap(rows.size());
+        for (Object[] row : rows) {
+            totals.put((Long) row[0], (Integer) row[1]);
+        }
+        return totals;
+    }
+
+    // Flushes first so a total inserted earlier in the same transaction is seen and incremented
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ScoreTotal t SET t.total = t.total + :delta WHERE t.activityId = :activityId AND t.userId = :userId")
+    int incrementTotal(@Param("activityId") Long activityId, @Param("userId") Long userId, @Param("delta") int delta);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ScoreTotal t WHERE t.activityId = :activityId")
+    void deleteByActivityId(@Param("activityId") Long activityId);
+
+    // Native writes name the table they touch, or Hibernate empties every cache region
+    @Modifying
+    @Query(value = "INSERT INTO score_totals (activity_id, user_id, total) " +
+            "SELECT s.activity_id, s.user_id, SUM(s.points) FROM scores s " +
+            "WHERE s.activity_id = :activityId GROUP BY s.activity_id, s.user_id", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "score_totals"))
+    int rebuildForActivity(@Param("activityId") Long activityId);
+
+    @Modifying
+    @Query(value = "INSERT INTO score_totals (activity_id, user_id, total) " +
+            "SELECT s.activity_id, s.user_id, SUM(s.points) FROM scores s " +
+            "GROUP BY s.activity_id, s.user_id", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "score_totals"))
+    int rebuildAll();
+}
@@ -1,8 +1,11 @@
 package com.scorevo.repository;
 
 import com.scorevo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -10,10 +13,18 @@ import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Username is the natural id, so email lookups (sign-in, invitations) use the query cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
+
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
     @Query("SELECT u FROM User u JOIN u.activities a WHERE a.id = :activityId")
     List<User> findUsersByActivityId(@Param("activityId") Long activityId);
+
+    // Id, username and email of every user, for rebuilding the search index
+    @Query("SELECT u.id, u.username, u.email FROM User u")
+    List<Object[]> findAllSearchRows();
 }
\ No newline at end of file
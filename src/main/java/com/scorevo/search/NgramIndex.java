@@ -0,0 +1,209 @@
+package com.scorevo.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from n-grams to document ids, for typeahead matching over short texts.
+ * Every word of a document contributes its trigrams plus its one and two character
+ * prefixes, so a query word of any length narrows the search to the intersection of
+ * a few posting lists before the candidate texts themselves are checked.
+ * <p>
+ * Not thread-safe; {@link SearchIndex} guards it.
+ */
+class NgramIndex {
+
+    private static final int GRAM = 3;
+    // Candidates scored per search at most; beyond that a one or two letter query ranks a sample
+    private static final int MAX_SCORED = 250;
+    private static final String PREFIX_MARK = "^";
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    // Normalized words of each field per document; the first field is the primary one
+    private final Map<Long, String[][]> documents = new HashMap<>();
+
+    private record Hit(long id, int score, int length) {
+    }
+
+    /**
+     * Index a document, replacing any previous version of it
+     */
+    void put(long id, String... fields) {
+        remove(id);
+        String[][] words = new String[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            words[i] = words(normalize(fields[i])).toArray(String[]::new);
+        }
+        documents.put(id, words);
+        for (String gram : documentGrams(words)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        String[][] words = documents.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (String gram : documentGrams(words)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Ids of the documents containing every word of the query, as a word prefix or, from three
+     * characters on, anywhere in a word. Best matches first: whole words over word prefixes over
+     * infixes, primary field over the others, then fewer words in the primary field.
+     *
+     * @param within documents to search among, or null for all; iterated instead of the
+     *               posting lists when it is the smaller side
+     */
+    List<Long> search(String query, Set<Long> within, LongPredicate filter, int limit) {
+        List<String> words = words(normalize(query));
+        if (words.isEmpty() || limit <= 0 || (within != null && within.isEmpty())) {
+            return List.of();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String word : words) {
+            for (String gram : queryGrams(word)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+        }
+        if (within != null) {
+            lists.add(within);
+        }
+        // Walk the smallest set and probe the others
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Hit> hits = new ArrayList<>();
+        candidates:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidates;
+                }
+            }
+            if (!filter.test(id)) {
+                continue;
+            }
+            String[][] document = documents.get(id);
+            int score = score(document, words);
+            // Having every gram is not having the word: "abcxbcd" holds both trigrams of "abcd"
+            if (score >= 0) {
+                hits.add(new Hit(id, score, document[0].length));
+                if (hits.size() == MAX_SCORED) {
+                    break;
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                .thenComparingInt(Hit::length)
+                .thenComparingLong(Hit::id));
+        List<Long> ids = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            ids.add(hits.get(i).id());
+        }
+        return ids;
+    }
+
+    // Sum over the query words of their best match, or -1 if a word matches nowhere
+    private static int score(String[][] document, List<String> queryWords) {
+        // The primary field starting with the query, as typed so far
+        int total = document[0].length > 0 && document[0][0].startsWith(queryWords.get(0)) ? 4 : 0;
+        for (String queryWord : queryWords) {
+            int best = -1;
+            for (int f = 0; f < document.length; f++) {
+                for (String word : document[f]) {
+                    int match;
+                    if (word.equals(queryWord)) {
+                        match = 3;
+                    } else if (word.startsWith(queryWord)) {
+                        match = 2;
+                    } else if (queryWord.length() >= GRAM && word.contains(queryWord)) {
+                        match = 1;
+                    } else {
+                        continue;
+                    }
+                    best = Math.max(best, f == 0 ? match * 2 : match);
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static Set<String> documentGrams(String[][] document) {
+        Set<String> grams = new HashSet<>();
+        for (String[] field : document) {
+            for (String word : field) {
+                grams.add(PREFIX_MARK + word.substring(0, 1));
+                if (word.length() >= 2) {
+                    grams.add(PREFIX_MARK + word.substring(0, 2));
+                }
+                for (int i = 0; i + GRAM <= word.length(); i++) {
+                    grams.add(word.substring(i, i + GRAM));
+                }
+            }
+        }
+        return grams;
+    }
+
+    // Short words can only match as prefixes; longer ones need every trigram
+    private static Set<String> queryGrams(String word) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (word.length() < GRAM) {
+            grams.add(PREFIX_MARK + word);
+        } else {
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                grams.add(word.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    private static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Case- and accent-insensitive form of a text
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,276 @@
+package com.scorevo.search;
+
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.event.UserChangedEvent;
+import com.scorevo.model.User;
+import com.scorevo.payload.response.ActivityDTO;
+import com.scorevo.payload.response.ActivitySearchHitDTO;
+import com.scorevo.payload.response.UserSearchHitDTO;
+import com.scorevo.repository.ActivityRepository;
+import com.scorevo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory typeahead search over activity names and descriptions and over usernames
+ * and emails, backed by {@link NgramIndex}es and kept current by ActivityChangedEvent
+ * and UserChangedEvent. It is rebuilt from the database at startup, see SearchIndexInit.
+ * <p>
+ * Activity results are limited to the searcher's own activities. User results rank people
+ * who share an activity with the searcher first and match them on username or email; anyone
+ * else is matched on username, or on their email only when it is typed out in full.
+ */
+@Component
+public class SearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    public static final int MAX_RESULTS = 50;
+
+    private final ActivityRepository activityRepository;
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Replaced wholesale by a rebuild; guarded by lock
+    private State state = new State();
+
+    // Changes seen while a rebuild is loading, replayed once it is swapped in; guarded by this
+    private boolean rebuilding;
+    private final Set<Long> changedActivities = new HashSet<>();
+    private final Set<Long> changedUsers = new HashSet<>();
+
+    @Autowired
+    public SearchIndex(ActivityRepository activityRepository, UserRepository userRepository) {
+        this.activityRepository = activityRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Activities of the user matching the query, best matches first
+     */
+    public List<ActivitySearchHitDTO> searchActivities(String query, Long userId, int limit) {
+        int max = Math.max(0, Math.min(limit, MAX_RESULTS));
+        lock.readLock().lock();
+        try {
+            Set<Long> own = state.userActivities.getOrDefault(userId, Set.of());
+            if (own.isEmpty()) {
+                return List.of();
+            }
+            List<ActivitySearchHitDTO> hits = new ArrayList<>();
+            for (Long id : state.activities.search(query, own, id -> true, max)) {
+                hits.add(state.activityHits.get(id));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Users matching the query, people sharing an activity with the searcher first
+     */
+    public List<UserSearchHitDTO> searchUsers(String query, Long userId, int limit) {
+        int max = Math.max(0, Math.min(limit, MAX_RESULTS));
+        lock.readLock().lock();
+        try {
+            Set<Long> coMembers = coMembers(userId);
+
+            List<UserSearchHitDTO> hits = new ArrayList<>();
+            for (Long id : state.users.search(query, coMembers, id -> true, max)) {
+                hits.add(state.userHits.get(id));
+            }
+
+            Long byEmail = state.usersByEmail.get(NgramIndex.normalize(query.trim()));
+            if (byEmail != null && hits.size() < max && !coMembers.contains(byEmail)) {
+                hits.add(state.userHits.get(byEmail));
+            }
+
+            // Strangers get no email in the results, as the searcher could not see it elsewhere either
+            LongPredicate stranger = id -> !coMembers.contains(id) && !Long.valueOf(id).equals(byEmail);
+            for (Long id : state.usernames.search(query, null, stranger, max - hits.size())) {
+                UserSearchHitDTO hit = state.userHits.get(id);
+                hits.add(new UserSearchHitDTO(hit.getId(), hit.getUsername(), null));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        synchronized (this) {
+            if (rebuilding) {
+                changedActivities.add(event.getActivityId());
+            }
+        }
+        reloadActivity(event.getActivityId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (this) {
+            if (rebuilding) {
+                changedUsers.add(event.getUserId());
+            }
+        }
+        reloadUser(event.getUserId());
+    }
+
+    /**
+     * Load every activity, membership and user into a fresh index and swap it in.
+     * Searches keep using the previous index meanwhile.
+     */
+    public void rebuild() {
+        synchronized (this) {
+            rebuilding = true;
+            changedActivities.clear();
+            changedUsers.clear();
+        }
+
+        State fresh = new State();
+        Map<Long, List<Long>> members = new HashMap<>();
+        for (Object[] pair : activityRepository.findAllParticipantPairs()) {
+            members.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((Long) pair[1]);
+        }
+        for (ActivityDTO activity : activityRepository.findAllActivityDTOs()) {
+            fresh.putActivity(activity, members.getOrDefault(activity.getId(), List.of()));
+        }
+        for (Object[] row : userRepository.findAllSearchRows()) {
+            fresh.putUser((Long) row[0], (String) row[1], (String) row[2]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            state = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Changes that landed during the load may be missing from it
+        Set<Long> activities;
+        Set<Long> users;
+        synchronized (this) {
+            rebuilding = false;
+            activities = new HashSet<>(changedActivities);
+            users = new HashSet<>(changedUsers);
+        }
+        activities.forEach(this::reloadActivity);
+        users.forEach(this::reloadUser);
+
+        logger.info("Search index built with {} activities and {} users",
+                fresh.activities.size(), fresh.users.size());
+    }
+
+    private void reloadActivity(Long activityId) {
+        // Tombstoned or deleted activities come back empty and are dropped
+        Optional<ActivityDTO> activity = activityRepository.findActivityDTOById(activityId);
+        List<Long> memberIds = activity.isPresent()
+                ? activityRepository.findParticipantIds(activityId, Limit.unlimited())
+                : List.of();
+
+        lock.writeLock().lock();
+        try {
+            state.removeActivity(activityId);
+            activity.ifPresent(dto -> state.putActivity(dto, memberIds));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reloadUser(Long userId) {
+        Optional<User> user = userRepository.findById(userId);
+
+        lock.writeLock().lock();
+        try {
+            state.removeUser(userId);
+            user.ifPresent(found -> state.putUser(found.getId(), found.getUsername(), found.getEmail()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The user and everyone sharing an activity with them; caller holds the read lock
+    private Set<Long> coMembers(Long userId) {
+        Set<Long> coMembers = new HashSet<>();
+        coMembers.add(userId);
+        for (Long activityId : state.userActivities.getOrDefault(userId, Set.of())) {
+            coMembers.addAll(state.activityMembers.get(activityId));
+        }
+        return coMembers;
+    }
+
+    private static final class State {
+        private final NgramIndex activities = new NgramIndex();
+        // Username and email, for people sharing an activity with the searcher
+        private final NgramIndex users = new NgramIndex();
+        // Username only, for everyone else
+        private final NgramIndex usernames = new NgramIndex();
+
+        private final Map<Long, ActivitySearchHitDTO> activityHits = new HashMap<>();
+        private final Map<Long, UserSearchHitDTO> userHits = new HashMap<>();
+        private final Map<String, Long> usersByEmail = new HashMap<>();
+        private final Map<Long, Set<Long>> activityMembers = new HashMap<>();
+        private final Map<Long, Set<Long>> userActivities = new HashMap<>();
+
+        private void putActivity(ActivityDTO activity, Collection<Long> memberIds) {
+            Long activityId = activity.getId();
+            activities.put(activityId, activity.getName(), activity.getDescription());
+            activityHits.put(activityId, new ActivitySearchHitDTO(
+                    activityId, activity.getName(), activity.getDescription(), activity.getMode()));
+            activityMembers.put(activityId, new HashSet<>(memberIds));
+            for (Long userId : memberIds) {
+                userActivities.computeIfAbsent(userId, id -> new HashSet<>()).add(activityId);
+            }
+        }
+
+        private void removeActivity(Long activityId) {
+            activities.remove(activityId);
+            activityHits.remove(activityId);
+            Set<Long> memberIds = activityMembers.remove(activityId);
+            if (memberIds == null) {
+                return;
+            }
+            for (Long userId : memberIds) {
+                Set<Long> own = userActivities.get(userId);
+                if (own != null && own.remove(activityId) && own.isEmpty()) {
+                    userActivities.remove(userId);
+                }
+            }
+        }
+
+        private void putUser(Long userId, String username, String email) {
+            users.put(userId, username, email);
+            usernames.put(userId, username);
+            userHits.put(userId, new UserSearchHitDTO(userId, username, email));
+            if (email != null) {
+                usersByEmail.put(NgramIndex.normalize(email), userId);
+            }
+        }
+
+        private void removeUser(Long userId) {
+            users.remove(userId);
+            usernames.remove(userId);
+            UserSearchHitDTO hit = userHits.remove(userId);
+            if (hit != null && hit.getEmail() != null) {
+                usersByEmail.remove(NgramIndex.normalize(hit.getEmail()));
+            }
+        }
+    }
+}
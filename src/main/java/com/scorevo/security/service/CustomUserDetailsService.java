@@ -1,29 +1,34 @@
 package com.scorevo.security.service;
 
 import com.scorevo.model.User;
-import com.scorevo.repository.UserRepository;
 import com.scorevo.security.model.SecurityUser;
-import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
-
-    @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
-    }
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        // Runs for every authenticated request: by natural id, a warm second-level cache
+        // resolves the username, the user and its roles without touching the database.
+        // Not read-only, so misses go to the primary: the caller is not known yet, so
+        // read-your-writes could not keep a user who just signed up off a lagging replica
+        User user = entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
         return new SecurityUser(user);
     }
-}
\ No newline at end of file
+}
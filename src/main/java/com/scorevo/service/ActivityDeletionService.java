@@ -0,0 +1,19 @@
+package com.scorevo.service;
+
+import com.scorevo.model.ActivityDeletion;
+
+import java.util.List;
+
+public interface ActivityDeletionService {
+
+    /**
+     * Get the ids of tombstoned activities whose rows are not all deleted yet, oldest request first
+     */
+    List<Long> getPendingDeletions();
+
+    /**
+     * Delete the next chunk of rows of a tombstoned activity and record the progress.
+     * Returns the deletion as committed, in phase DONE once the activity row itself is gone.
+     */
+    ActivityDeletion deleteNextChunk(Long activityId);
+}
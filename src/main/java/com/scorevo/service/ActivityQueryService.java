@@ -0,0 +1,37 @@
+package com.scorevo.service;
+
+import com.scorevo.payload.request.ActivityListRequest;
+import com.scorevo.payload.response.ActivityDTO;
+import com.scorevo.payload.response.ActivityDashboardDTO;
+import com.scorevo.payload.response.ActivityPageDTO;
+
+import java.util.List;
+
+/**
+ * Read side of activities: builds ActivityDTOs straight from projections, in a
+ * fixed number of queries however many activities or participants there are.
+ */
+public interface ActivityQueryService {
+
+    /**
+     * Get the activities a user participates in, with their participants
+     */
+    List<ActivityDTO> getUserActivityDTOs(Long userId);
+
+    /**
+     * Get one page of the activities a user participates in, optionally filtered by mode,
+     * sorted by creation or last activity, and with participant lists cut to a preview
+     */
+    ActivityPageDTO getUserActivityPage(Long userId, ActivityListRequest listRequest);
+
+    /**
+     * Get an activity with its participants
+     */
+    ActivityDTO getActivityDTO(Long activityId);
+
+    /**
+     * Get everything the activity screen shows: the activity with its participants, the ranked
+     * totals and the latest scores, after a single participant check of the current user
+     */
+    ActivityDashboardDTO getActivityDashboard(Long activityId, Long currentUserId, int latestScores);
+}
@@ -1,17 +1,21 @@
 package com.scorevo.service;
 
 import com.scorevo.model.Activity;
+import com.scorevo.model.ActivityDeletion;
 import com.scorevo.payload.request.ActivityRequest;
+import com.scorevo.payload.response.BulkParticipantResponse;
 import com.scorevo.payload.response.MessageResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
 public interface ActivityService {
     
     /**
-     * Get all activities
+     * Get one page of all activities
      */
-    List<Activity> getAllActivities();
+    Page<Activity> getAllActivities(Pageable pageable);
     
     /**
      * Get activities for a specific user
@@ -34,15 +38,28 @@ public interface ActivityService {
     Activity updateActivity(Long activityId, ActivityRequest activityRequest, Long userId);
     
     /**
-     * Delete an activity
+     * Delete an activity. The activity is hidden at once and its rows are removed
+     * in the background; the returned deletion reports the progress.
      */
-    void deleteActivity(Long activityId, Long userId);
+    ActivityDeletion deleteActivity(Long activityId, Long userId);
+
+    /**
+     * Get the progress of an activity deletion requested by the given user
+     */
+    ActivityDeletion getActivityDeletion(Long activityId, Long userId);
     
     /**
      * Add participant to activity
      */
     Activity addParticipant(Long activityId, Long userId, Long currentUserId);
     
+    /**
+     * Add many existing users to an activity at once. Users that are already participants
+     * or do not exist are skipped and reported. A user that an overlapping request adds at the
+     * same time ends up a participant once, and may be reported as added by both.
+     */
+    BulkParticipantResponse addParticipants(Long activityId, List<Long> userIds, Long currentUserId);
+
     /**
      * Add participant to activity by email
      */
@@ -57,4 +74,9 @@ public interface ActivityService {
      * Check if a user is a participant in an activity
      */
     boolean isParticipant(Activity activity, Long userId);
+
+    /**
+     * Check if a user is a participant in an activity, as of the last committed change
+     */
+    boolean isParticipant(Long activityId, Long userId);
 }
\ No newline at end of file
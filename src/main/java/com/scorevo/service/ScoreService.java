@@ -1,8 +1,20 @@
 package com.scorevo.service;
 
 import com.scorevo.model.Score;
+import com.scorevo.model.ScoreRollup;
+import com.scorevo.payload.request.BatchScoreRequest;
+import com.scorevo.payload.request.ScoreExportFormat;
+import com.scorevo.payload.request.ScoreHistoryRequest;
 import com.scorevo.payload.request.ScoreRequest;
+import com.scorevo.payload.response.BatchScoreResponse;
+import com.scorevo.payload.response.LeaderboardDTO;
+import com.scorevo.payload.response.ScoreDTO;
+import com.scorevo.payload.response.ScorePageDTO;
+import com.scorevo.payload.response.TimeseriesDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -18,11 +30,51 @@ public interface ScoreService {
      */
     List<Score> getUserActivityScores(Long activityId, Long userId, Long currentUserId);
 
+    /**
+     * Get a keyset-paginated, time-filtered page of the scores of an activity, newest first
+     */
+    ScorePageDTO getActivityScoresPage(Long activityId, ScoreHistoryRequest historyRequest, Long currentUserId);
+
+    /**
+     * Get a keyset-paginated, time-filtered page of a user's scores in an activity, newest first
+     */
+    ScorePageDTO getUserActivityScoresPage(Long activityId, Long userId, ScoreHistoryRequest historyRequest, Long currentUserId);
+
+    /**
+     * Stream the full score history of an activity, oldest first, without loading it into memory
+     */
+    void exportActivityScores(Long activityId, ScoreExportFormat format, OutputStream out, Long currentUserId)
+            throws IOException;
+
     /**
      * Get the current total score for each user in an activity
      */
     Map<Long, Integer> getCurrentScores(Long activityId, Long currentUserId);
 
+    /**
+     * Get the points per user per time bucket in [from, to) of an activity, read from the rollups.
+     * Defaults to the most recent buckets; userId narrows the series to one user.
+     */
+    TimeseriesDTO getTimeseries(Long activityId, ScoreRollup.Bucket bucket, LocalDateTime from, LocalDateTime to,
+                                Long userId, Long currentUserId);
+
+    /**
+     * Get a page of the ranked leaderboard of an activity
+     */
+    LeaderboardDTO getLeaderboard(Long activityId, int offset, int limit, Long currentUserId);
+
+    /**
+     * Get the leaderboard entries ranked around a specific user in an activity
+     */
+    LeaderboardDTO getLeaderboardAround(Long activityId, Long userId, int radius, Long currentUserId);
+
+    /**
+     * Add a new score in the activity's mode under a client-chosen idempotency key.
+     * Retrying with the same key and request returns the original score without writing again;
+     * reusing the key for a different request is refused.
+     */
+    ScoreDTO addScoreIdempotently(Long activityId, ScoreRequest scoreRequest, Long currentUserId, String idempotencyKey);
+
     /**
      * Add a new score in FREE_INCREMENT mode
      */
@@ -33,8 +85,36 @@ public interface ScoreService {
      */
     Score addPenaltyBalanceScore(Long activityId, ScoreRequest scoreRequest, Long currentUserId);
 
+    /**
+     * Add many scores to an activity in one transaction, routed by the activity's mode.
+     * Invalid items are rejected individually and reported in the per-item results.
+     */
+    BatchScoreResponse addScoresBatch(Long activityId, BatchScoreRequest batchRequest, Long currentUserId);
+
     /**
      * Delete a score
      */
     void deleteScore(Long scoreId, Long currentUserId);
+
+    /**
+     * Rebuild the materialized score totals and rollups of every activity from the score history
+     */
+    void rebuildScoreTotals();
+
+    /**
+     * Rebuild the materialized score totals and rollups of one activity from its score history
+     */
+    void rebuildScoreTotals(Long activityId);
+
+    /**
+     * Compare the materialized totals of every activity against its score history
+     * and rebuild the ones that drifted. Returns the number of activities repaired.
+     */
+    int repairScoreTotals();
+
+    /**
+     * Fold the scores of an activity older than the cutoff into one checkpoint row per user
+     * and move the raw rows to the archive. Totals are unchanged. Returns the number of rows archived.
+     */
+    int compactScores(Long activityId, LocalDateTime cutoff);
 }
\ No newline at end of file
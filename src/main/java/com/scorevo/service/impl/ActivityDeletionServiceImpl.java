@@ -0,0 +1,198 @@
+package com.scorevo.service.impl;
+
+import com.scorevo.model.ActivityDeletion;
+import com.scorevo.model.ScoreRollup;
+import com.scorevo.repository.ActivityDeletionRepository;
+import com.scorevo.service.ActivityDeletionService;
+import com.scorevo.write.ScoreWriteExecutor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ActivityDeletionServiceImpl implements ActivityDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityDeletionServiceImpl.class);
+
+    // Native, because the tombstoned activity is filtered out of every entity query
+    private static final String MEMBERSHIP_CHUNK_QUERY =
+            "SELECT user_id FROM activity_participants WHERE activity_id = :activityId";
+    private static final String DELETE_MEMBERSHIPS_QUERY =
+            "DELETE FROM activity_participants WHERE activity_id = :activityId AND user_id IN (:userIds)";
+    private static final String DELETE_ACTIVITY_QUERY =
+            "DELETE FROM activities WHERE id = :activityId AND deleted_at IS NOT NULL";
+
+    @Autowired
+    private ActivityDeletionRepository activityDeletionRepository;
+
+    @Autowired
+    private ScoreWriteExecutor scoreWriteExecutor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows deleted per transaction; keeps locks, undo log and replication lag bounded
+    @Value("${scorevo.deletion.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public List<Long> getPendingDeletions() {
+        return activityDeletionRepository.findPendingIds();
+    }
+
+    @Override
+    public ActivityDeletion deleteNextChunk(Long activityId) {
+        // Serialized with the activity's score writes, and the progress commits together with the chunk
+        return scoreWriteExecutor.execute(activityId, () -> {
+            ActivityDeletion deletion = activityDeletionRepository.findById(activityId)
+                    .orElseThrow(() -> new EntityNotFoundException("No deletion found for activity: " + activityId));
+            if (deletion.getPhase() == ActivityDeletion.Phase.DONE) {
+                return deletion;
+            }
+
+            int limit = Math.max(1, chunkSize);
+            int deleted = switch (deletion.getPhase()) {
+                case INVITATIONS -> deleteById("Invitation", activityId, limit);
+                case SCORES -> deleteById("Score", activityId, limit);
+                case ARCHIVED_SCORES -> deleteById("ArchivedScore", activityId, limit);
+                case ROLLUPS -> deleteRollups(activityId, limit);
+                case TOTALS -> deleteTotals(activityId, limit);
+                case MEMBERSHIPS -> deleteMemberships(activityId, limit);
+                case ACTIVITY -> deleteActivity(deletion);
+                case DONE -> 0;
+            };
+
+            LocalDateTime now = LocalDateTime.now();
+            deletion.setDeletedRows(deletion.getDeletedRows() + deleted);
+            deletion.setUpdatedAt(now);
+
+            // A phase is finished once a chunk comes back empty
+            if (deleted == 0) {
+                if (deletion.getPhase() == ActivityDeletion.Phase.ACTIVITY) {
+                    // Something was added after the tombstone (an invitation accepted mid-request, say); sweep again
+                    deletion.setPhase(ActivityDeletion.Phase.INVITATIONS);
+                } else {
+                    deletion.setPhase(ActivityDeletion.Phase.values()[deletion.getPhase().ordinal() + 1]);
+                }
+            } else if (deletion.getPhase() == ActivityDeletion.Phase.ACTIVITY) {
+                deletion.setPhase(ActivityDeletion.Phase.DONE);
+                deletion.setCompletedAt(now);
+                logger.info("Deleted activity {}, {} rows in total", activityId, deletion.getDeletedRows());
+            }
+            return activityDeletionRepository.save(deletion);
+        });
+    }
+
+    // Select one chunk of ids, then delete exactly those; a bare DELETE ... LIMIT is not portable
+    private int deleteById(String entity, Long activityId, int limit) {
+        List<Long> ids = entityManager.createQuery(
+                        "SELECT e.id FROM " + entity + " e WHERE e.activity.id = :activityId", Long.class)
+                .setParameter("activityId", activityId)
+                .setMaxResults(limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery("DELETE FROM " + entity + " e WHERE e.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    // Rollups have a composite key, so chunks are ranges of bucket starts along the series index
+    private int deleteRollups(Long activityId, int limit) {
+        for (ScoreRollup.Bucket bucket : ScoreRollup.Bucket.values()) {
+            List<LocalDateTime> boundary = entityManager.createQuery(
+                            "SELECT r.bucketStart FROM ScoreRollup r " +
+                                    "WHERE r.activityId = :activityId AND r.bucket = :bucket ORDER BY r.bucketStart",
+                            LocalDateTime.class)
+                    .setParameter("activityId", activityId)
+                    .setParameter("bucket", bucket)
+                    .setFirstResult(limit - 1)
+                    .setMaxResults(1)
+                    .getResultList();
+
+            // Fewer rows than a chunk left in this bucket: take them all
+            String range = boundary.isEmpty() ? "" : " AND r.bucketStart <= :upTo";
+            var delete = entityManager.createQuery(
+                            "DELETE FROM ScoreRollup r WHERE r.activityId = :activityId AND r.bucket = :bucket" + range)
+                    .setParameter("activityId", activityId)
+                    .setParameter("bucket", bucket);
+            if (!boundary.isEmpty()) {
+                delete.setParameter("upTo", boundary.get(0));
+            }
+            int deleted = delete.executeUpdate();
+            if (deleted > 0) {
+                return deleted;
+            }
+        }
+        return 0;
+    }
+
+    private int deleteTotals(Long activityId, int limit) {
+        List<Long> userIds = entityManager.createQuery(
+                        "SELECT t.userId FROM ScoreTotal t WHERE t.activityId = :activityId", Long.class)
+                .setParameter("activityId", activityId)
+                .setMaxResults(limit)
+                .getResultList();
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery(
+                        "DELETE FROM ScoreTotal t WHERE t.activityId = :activityId AND t.userId IN :userIds")
+                .setParameter("activityId", activityId)
+                .setParameter("userIds", userIds)
+                .executeUpdate();
+    }
+
+    private int deleteMemberships(Long activityId, int limit) {
+        List<?> userIds = entityManager.createNativeQuery(MEMBERSHIP_CHUNK_QUERY)
+                .setParameter("activityId", activityId)
+                .setMaxResults(limit)
+                .getResultList();
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        // Naming the table keeps Hibernate from emptying every second-level cache region
+        return entityManager.createNativeQuery(DELETE_MEMBERSHIPS_QUERY)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "activity_participants")
+                .setParameter("activityId", activityId)
+                .setParameter("userIds", userIds)
+                .executeUpdate();
+    }
+
+    // Deletes the activity row only if nothing references it any more, otherwise returns 0
+    private int deleteActivity(ActivityDeletion deletion) {
+        Long activityId = deletion.getActivityId();
+        if (hasRows("Invitation", activityId) || hasRows("Score", activityId) || hasRows("ArchivedScore", activityId)
+                || !entityManager.createNativeQuery(MEMBERSHIP_CHUNK_QUERY)
+                        .setParameter("activityId", activityId)
+                        .setMaxResults(1)
+                        .getResultList().isEmpty()) {
+            return 0;
+        }
+
+        entityManager.createNativeQuery(DELETE_ACTIVITY_QUERY)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "activities")
+                .setParameter("activityId", activityId)
+                .executeUpdate();
+        // Counted as one row even if it was already gone, so the deletion still completes
+        return 1;
+    }
+
+    private boolean hasRows(String entity, Long activityId) {
+        return !entityManager.createQuery(
+                        "SELECT e.id FROM " + entity + " e WHERE e.activity.id = :activityId", Long.class)
+                .setParameter("activityId", activityId)
+                .setMaxResults(1)
+                .getResultList().isEmpty();
+    }
+}
@@ -0,0 +1,187 @@
+package com.scorevo.service.impl;
+
+import com.scorevo.leaderboard.LeaderboardEngine;
+import com.scorevo.payload.request.ActivityListRequest;
+import com.scorevo.payload.response.ActivityDTO;
+import com.scorevo.payload.response.ActivityDashboardDTO;
+import com.scorevo.payload.response.ActivityPageDTO;
+import com.scorevo.payload.response.LeaderboardDTO;
+import com.scorevo.payload.response.ScoreDTO;
+import com.scorevo.repository.ActivityRepository;
+import com.scorevo.repository.ArchivedScoreRepository;
+import com.scorevo.repository.ScoreRepository;
+import com.scorevo.service.ActivityQueryService;
+import com.scorevo.util.KeysetCursor;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ActivityQueryServiceImpl implements ActivityQueryService {
+
+    private static final int DEFAULT_PAGE = 20;
+    private static final int MAX_PAGE = 100;
+    private static final int MAX_PARTICIPANTS_PREVIEW = 50;
+    private static final int MAX_DASHBOARD_SCORES = 100;
+
+    // Stand-in for an absent cursor, kept within the MySQL DATETIME range
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final ActivityRepository activityRepository;
+    private final ScoreRepository scoreRepository;
+    private final ArchivedScoreRepository archivedScoreRepository;
+    private final LeaderboardEngine leaderboardEngine;
+
+    @Autowired
+    public ActivityQueryServiceImpl(
+            ActivityRepository activityRepository,
+            ScoreRepository scoreRepository,
+            ArchivedScoreRepository archivedScoreRepository,
+            LeaderboardEngine leaderboardEngine) {
+        this.activityRepository = activityRepository;
+        this.scoreRepository = scoreRepository;
+        this.archivedScoreRepository = archivedScoreRepository;
+        this.leaderboardEngine = leaderboardEngine;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ActivityDTO> getUserActivityDTOs(Long userId) {
+        // One query for the activities, one for all of their participants
+        List<ActivityDTO> activities = activityRepository.findActivityDTOsByParticipantId(userId);
+        attachParticipants(activities);
+        return activities;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ActivityDTO getActivityDTO(Long activityId) {
+        ActivityDTO activity = activityRepository.findActivityDTOById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+        attachParticipants(List.of(activity));
+        return activity;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ActivityDashboardDTO getActivityDashboard(Long activityId, Long currentUserId, int latestScores) {
+        ActivityDTO activity = getActivityDTO(activityId);
+
+        // The participant list is needed anyway, so it doubles as the membership check
+        if (activity.getParticipants().stream().noneMatch(participant -> participant.getId().equals(currentUserId))) {
+            throw new IllegalStateException("You must be a participant to view this activity");
+        }
+
+        // Totals and ranks come from the in-memory leaderboard, which only reads the totals on a miss
+        LeaderboardDTO standings = leaderboardEngine.getStandings(activityId, activity.getMode());
+        LeaderboardDTO.EntryDTO currentUser = standings.getEntries().stream()
+                .filter(entry -> entry.getUserId().equals(currentUserId))
+                .findFirst()
+                .orElse(null);
+
+        int scoreCount = Math.max(0, Math.min(latestScores, MAX_DASHBOARD_SCORES));
+        List<ScoreDTO> scores = new ArrayList<>();
+        if (scoreCount > 0) {
+            scores.addAll(scoreRepository.findLatestDTOs(activityId, Limit.of(scoreCount)));
+            // Archived rows are all older than hot ones, so the archive only tops up what the hot rows could not fill
+            if (scores.size() < scoreCount) {
+                scores.addAll(archivedScoreRepository.findLatestDTOs(activityId, Limit.of(scoreCount - scores.size())));
+            }
+        }
+
+        return new ActivityDashboardDTO(activity, standings, currentUser, scores);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ActivityPageDTO getUserActivityPage(Long userId, ActivityListRequest listRequest) {
+        int pageSize = listRequest.getLimit() == null
+                ? DEFAULT_PAGE
+                : Math.max(1, Math.min(listRequest.getLimit(), MAX_PAGE));
+        boolean byLastActivity = listRequest.getSort() == ActivityListRequest.Sort.LAST_ACTIVITY;
+
+        LocalDateTime cursorTime = MAX_TIME;
+        Long cursorId = Long.MAX_VALUE;
+        if (listRequest.getCursor() != null) {
+            KeysetCursor position = KeysetCursor.decode(listRequest.getCursor());
+            cursorTime = position.time();
+            cursorId = position.id();
+        }
+
+        // One extra row tells whether another page follows
+        Limit limit = Limit.of(pageSize + 1);
+        List<ActivityDTO> activities = byLastActivity
+                ? activityRepository.findActivityDTOPageByLastActivityAt(userId, listRequest.getMode(), cursorTime, cursorId, limit)
+                : activityRepository.findActivityDTOPageByCreatedAt(userId, listRequest.getMode(), cursorTime, cursorId, limit);
+
+        String nextCursor = null;
+        if (activities.size() > pageSize) {
+            activities = activities.subList(0, pageSize);
+            ActivityDTO last = activities.get(pageSize - 1);
+            nextCursor = new KeysetCursor(byLastActivity ? last.getLastActivityAt() : last.getCreatedAt(), last.getId())
+                    .encode();
+        }
+
+        if (listRequest.getParticipantsPreview() != null) {
+            attachParticipantPreview(activities,
+                    Math.max(0, Math.min(listRequest.getParticipantsPreview(), MAX_PARTICIPANTS_PREVIEW)));
+        } else {
+            attachParticipants(activities);
+        }
+        return new ActivityPageDTO(activities, nextCursor);
+    }
+
+    private void attachParticipants(List<ActivityDTO> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ActivityDTO> activitiesById = byId(activities);
+        addParticipants(activitiesById, activityRepository.findParticipantRows(activitiesById.keySet()));
+        for (ActivityDTO activity : activities) {
+            activity.setParticipantCount(activity.getParticipants().size());
+        }
+    }
+
+    // Counts come from a separate aggregate, so large activities never ship their full participant lists
+    private void attachParticipantPreview(List<ActivityDTO> activities, int perActivity) {
+        if (activities.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ActivityDTO> activitiesById = byId(activities);
+        if (perActivity > 0) {
+            addParticipants(activitiesById,
+                    activityRepository.findParticipantPreviewRows(activitiesById.keySet(), perActivity));
+        }
+        for (Object[] row : activityRepository.countParticipants(activitiesById.keySet())) {
+            activitiesById.get((Long) row[0]).setParticipantCount(((Number) row[1]).intValue());
+        }
+    }
+
+    private static Map<Long, ActivityDTO> byId(List<ActivityDTO> activities) {
+        Map<Long, ActivityDTO> activitiesById = new HashMap<>(activities.size() * 2);
+        for (ActivityDTO activity : activities) {
+            activitiesById.put(activity.getId(), activity);
+        }
+        return activitiesById;
+    }
+
+    private static void addParticipants(Map<Long, ActivityDTO> activitiesById, List<ActivityRepository.ParticipantRow> rows) {
+        for (ActivityRepository.ParticipantRow row : rows) {
+            ActivityDTO.ParticipantDTO participant = new ActivityDTO.ParticipantDTO();
+            participant.setId(row.userId());
+            participant.setUsername(row.username());
+            participant.setEmail(row.email());
+            activitiesById.get(row.activityId()).getParticipants().add(participant);
+        }
+    }
+}
@@ -1,31 +1,42 @@
 package com.scorevo.service.impl;
 
+import com.scorevo.cache.MembershipCache;
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
 import com.scorevo.model.Activity;
+import com.scorevo.model.ActivityDeletion;
 import com.scorevo.model.Invitation;
 import com.scorevo.model.User;
 import com.scorevo.payload.request.ActivityRequest;
+import com.scorevo.payload.request.BulkParticipantRequest;
+import com.scorevo.payload.response.BulkParticipantResponse;
 import com.scorevo.payload.response.MessageResponse;
+import com.scorevo.repository.ActivityDeletionRepository;
 import com.scorevo.repository.ActivityRepository;
 import com.scorevo.repository.InvitationRepository;
 import com.scorevo.repository.UserRepository;
 import com.scorevo.service.ActivityService;
 import com.scorevo.service.EmailService;
-import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import jakarta.persistence.Query;
-
 @Service
 public class ActivityServiceImpl implements ActivityService {
 
@@ -33,35 +44,52 @@ public class ActivityServiceImpl implements ActivityService {
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final InvitationRepository invitationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MembershipCache membershipCache;
+    private final ActivityDeletionRepository activityDeletionRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     private static final Logger logger = LoggerFactory.getLogger(ActivityServiceImpl.class);
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    // A row another request inserted first is left as it is instead of failing on the primary key
+    private static final String INSERT_PARTICIPANT_QUERY =
+            "INSERT INTO activity_participants (activity_id, user_id) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE user_id = user_id";
 
     @Autowired
     public ActivityServiceImpl(
             ActivityRepository activityRepository,
             UserRepository userRepository,
             EmailService emailService,
-            InvitationRepository invitationRepository) {
+            InvitationRepository invitationRepository,
+            ApplicationEventPublisher eventPublisher,
+            MembershipCache membershipCache,
+            ActivityDeletionRepository activityDeletionRepository,
+            JdbcTemplate jdbcTemplate) {
         this.activityRepository = activityRepository;
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.invitationRepository = invitationRepository;
+        this.eventPublisher = eventPublisher;
+        this.membershipCache = membershipCache;
+        this.activityDeletionRepository = activityDeletionRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
-    public List<Activity> getAllActivities() {
-        return activityRepository.findAll();
+    @Transactional(readOnly = true)
+    public Page<Activity> getAllActivities(Pageable pageable) {
+        return activityRepository.findAll(pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Activity> getUserActivities(Long userId) {
         return activityRepository.findByParticipantsId(userId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Activity getActivityById(Long activityId) {
         return activityRepository.findById(activityId)
                 .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
@@ -86,7 +114,9 @@ public class ActivityServiceImpl implements ActivityService {
         activity.setParticipants(participants);
 
         // Save the activity
-        return activityRepository.save(activity);
+        Activity saved = activityRepository.save(activity);
+        eventPublisher.publishEvent(new ActivityChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
@@ -108,13 +138,15 @@ public class ActivityServiceImpl implements ActivityService {
         // We don't allow changing the mode once the activity is created
         // as it would invalidate existing scores
 
+        eventPublisher.publishEvent(new ActivityChangedEvent(activityId));
+
         // Save the updated activity
         return activityRepository.save(activity);
     }
 
     @Override
     @Transactional
-    public void deleteActivity(Long activityId, Long userId) {
+    public ActivityDeletion deleteActivity(Long activityId, Long userId) {
         // Find the activity
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
@@ -124,33 +156,39 @@ public class ActivityServiceImpl implements ActivityService {
             throw new IllegalStateException("User is not a participant in this activity");
         }
 
-        try {
-            // 1. First, delete all invitations associated with this activity
-            // Use JPQL query to delete invitations directly
-            Query deleteInvitationsQuery = entityManager.createQuery(
-                    "DELETE FROM Invitation i WHERE i.activity.id = :activityId");
-            deleteInvitationsQuery.setParameter("activityId", activityId);
-            deleteInvitationsQuery.executeUpdate();
-
-            // 2. Delete all scores associated with this activity
-            Query deleteScoresQuery = entityManager.createQuery(
-                    "DELETE FROM Score s WHERE s.activity.id = :activityId");
-            deleteScoresQuery.setParameter("activityId", activityId);
-            deleteScoresQuery.executeUpdate();
-
-            // 3. Clear participants collection to avoid issues with bidirectional relationships
-            activity.getParticipants().clear();
-            activityRepository.save(activity);
-
-            // 4. Finally delete the activity
-            activityRepository.delete(activity);
-
-        } catch (Exception e) {
-            logger.error("Error deleting activity: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to delete activity: " + e.getMessage(), e);
-        }
+        // Tombstone the activity: from here on no query sees it, and ActivityDeletionJob
+        // removes its scores, invitations and memberships in bounded chunks
+        LocalDateTime now = LocalDateTime.now();
+        activity.setDeletedAt(now);
+        activityRepository.save(activity);
+
+        ActivityDeletion deletion = new ActivityDeletion();
+        deletion.setActivityId(activityId);
+        deletion.setRequestedBy(userId);
+        deletion.setRequestedAt(now);
+        deletion.setPhase(ActivityDeletion.Phase.INVITATIONS);
+        deletion.setDeletedRows(0L);
+        deletion.setUpdatedAt(now);
+
+        // Drop the in-memory leaderboard, score totals and membership state right away
+        eventPublisher.publishEvent(new ScoreTotalsResetEvent(activityId));
+        eventPublisher.publishEvent(new ActivityChangedEvent(activityId));
+
+        return activityDeletionRepository.save(deletion);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ActivityDeletion getActivityDeletion(Long activityId, Long userId) {
+        ActivityDeletion deletion = activityDeletionRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("No deletion found for activity: " + activityId));
+
+        // The participants may already be gone, so only the requester can follow the progress
+        if (!deletion.getRequestedBy().equals(userId)) {
+            throw new IllegalStateException("Only the user who deleted this activity can view its deletion");
+        }
+        return deletion;
+    }
 
     @Override
     @Transactional
@@ -171,12 +209,56 @@ public class ActivityServiceImpl implements ActivityService {
         // Add the user as a participant if not already
         if (!isParticipant(activity, userId)) {
             activity.getParticipants().add(user);
+            eventPublisher.publishEvent(new ActivityChangedEvent(activityId));
             return activityRepository.save(activity);
         } else {
             throw new IllegalStateException("User is already a participant in this activity");
         }
     }
 
+    @Override
+    @Transactional
+    public BulkParticipantResponse addParticipants(Long activityId, List<Long> userIds, Long currentUserId) {
+        if (userIds.size() > BulkParticipantRequest.MAX_USERS) {
+            throw new IllegalArgumentException("At most " + BulkParticipantRequest.MAX_USERS + " users can be added at once");
+        }
+
+        // Find the activity; its participants stay unloaded
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Check if current user is a participant
+        if (!isParticipant(activity, currentUserId)) {
+            throw new IllegalStateException("You must be a participant to add others to this activity");
+        }
+
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        List<Long> toAdd = activityRepository.findNonParticipantIds(activityId, requested);
+
+        Set<Long> present = Set.of();
+        if (!toAdd.isEmpty()) {
+            // Join rows go straight in as one JDBC batch instead of rewriting the participants collection.
+            // The check above is only a filter: another request may add the same users before this one commits
+            jdbcTemplate.batchUpdate(INSERT_PARTICIPANT_QUERY, toAdd, toAdd.size(), (statement, userId) -> {
+                statement.setLong(1, activityId);
+                statement.setLong(2, userId);
+            });
+            // Update counts cannot tell inserted rows from kept ones on every driver, so read them back
+            present = new HashSet<>(activityRepository.findParticipantIdsIn(activityId, toAdd));
+        }
+
+        List<Long> added = new ArrayList<>(present.size());
+        List<Long> skipped = new ArrayList<>();
+        for (Long userId : requested) {
+            (present.contains(userId) ? added : skipped).add(userId);
+        }
+        if (!added.isEmpty()) {
+            eventPublisher.publishEvent(new ActivityChangedEvent(activityId));
+        }
+
+        return new BulkParticipantResponse(added, skipped);
+    }
+
     @Override
     @Transactional
     public MessageResponse addParticipantByEmail(Long activityId, String email, Long currentUserId) {
@@ -268,6 +350,7 @@ public class ActivityServiceImpl implements ActivityService {
         // Remove the user as a participant
         if (isParticipant(activity, userId)) {
             activity.getParticipants().remove(user);
+            eventPublisher.publishEvent(new ActivityChangedEvent(activityId));
             return activityRepository.save(activity);
         } else {
             throw new IllegalStateException("User is not a participant in this activity");
@@ -276,7 +359,16 @@ public class ActivityServiceImpl implements ActivityService {
 
     @Override
     public boolean isParticipant(Activity activity, Long userId) {
-        return activity.getParticipants().stream()
-                .anyMatch(participant -> participant.getId().equals(userId));
+        // Participants already loaded in this session are authoritative, including uncommitted changes
+        if (Hibernate.isInitialized(activity.getParticipants())) {
+            return activity.getParticipants().stream()
+                    .anyMatch(participant -> participant.getId().equals(userId));
+        }
+        return membershipCache.isMember(activity.getId(), userId);
+    }
+
+    @Override
+    public boolean isParticipant(Long activityId, Long userId) {
+        return membershipCache.isMember(activityId, userId);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.scorevo.service.impl;
 
+import com.scorevo.event.ActivityChangedEvent;
 import com.scorevo.model.Activity;
 import com.scorevo.model.Invitation;
 import com.scorevo.model.User;
@@ -7,6 +8,7 @@ import com.scorevo.payload.response.MessageResponse;
 import com.scorevo.repository.ActivityRepository;
 import com.scorevo.repository.InvitationRepository;
 import com.scorevo.repository.UserRepository;
+import com.scorevo.service.ActivityService;
 import com.scorevo.service.InvitationService;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
@@ -35,8 +37,8 @@ public class InvitationServiceImpl implements InvitationService {
     @Autowired
     private UserRepository userRepository;
 
-    // Use direct repository access instead of ActivityService
-    // Removed: private ActivityService activityService;
+    @Autowired
+    private ActivityService activityService;
 
     @Autowired
     private ApplicationEventPublisher eventPublisher;
@@ -70,6 +72,7 @@ public class InvitationServiceImpl implements InvitationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Invitation getInvitationByToken(String token) {
         return invitationRepository.findByToken(token)
                 .orElseThrow(() -> new EntityNotFoundException("Invitation not found with token: " + token));
@@ -101,9 +104,10 @@ public class InvitationServiceImpl implements InvitationService {
 
         // Add user to activity directly using repositories
         Activity activity = invitation.getActivity();
-        if (!isParticipant(activity, userId)) {
+        if (!activityService.isParticipant(activity, userId)) {
             activity.getParticipants().add(user);
             activityRepository.save(activity);
+            eventPublisher.publishEvent(new ActivityChangedEvent(activity.getId()));
         }
 
         // Mark invitation as accepted
@@ -115,6 +119,7 @@ public class InvitationServiceImpl implements InvitationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Invitation> getPendingInvitationsByEmail(String email) {
         return invitationRepository.findByEmailAndIsAccepted(email, false);
     }
@@ -138,9 +143,10 @@ public class InvitationServiceImpl implements InvitationService {
             try {
                 // Add user to activity directly
                 Activity activity = invitation.getActivity();
-                if (!isParticipant(activity, userId)) {
+                if (!activityService.isParticipant(activity, userId)) {
                     activity.getParticipants().add(user);
                     activityRepository.save(activity);
+                    eventPublisher.publishEvent(new ActivityChangedEvent(activity.getId()));
                 }
 
                 // Mark invitation as accepted
@@ -168,11 +174,6 @@ public class InvitationServiceImpl implements InvitationService {
     }
 
     // Helper method to check if a user is a participant
-    private boolean isParticipant(Activity activity, Long userId) {
-        return activity.getParticipants().stream()
-                .anyMatch(participant -> participant.getId().equals(userId));
-    }
-
     // Add this method to the InvitationServiceImpl
 
     @Override
@@ -1,51 +1,163 @@
 package com.scorevo.service.impl;
 
+import com.scorevo.cache.IdempotencyCache;
+import com.scorevo.event.ScoreChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.leaderboard.LeaderboardEngine;
 import com.scorevo.model.Activity;
+import com.scorevo.model.ArchivedScore;
+import com.scorevo.model.IdempotencyKey;
 import com.scorevo.model.Score;
+import com.scorevo.model.ScoreRollup;
+import com.scorevo.model.ScoreTotal;
 import com.scorevo.model.User;
+import com.scorevo.payload.request.BatchScoreRequest;
+import com.scorevo.penalty.PenaltyAllocator;
+import com.scorevo.payload.request.ScoreExportFormat;
+import com.scorevo.payload.request.ScoreHistoryRequest;
 import com.scorevo.payload.request.ScoreRequest;
+import com.scorevo.payload.response.BatchScoreResponse;
+import com.scorevo.payload.response.LeaderboardDTO;
+import com.scorevo.payload.response.ScoreBucketDTO;
+import com.scorevo.payload.response.ScoreDTO;
+import com.scorevo.payload.response.ScorePageDTO;
+import com.scorevo.payload.response.TimeseriesDTO;
 import com.scorevo.repository.ActivityRepository;
+import com.scorevo.repository.ArchivedScoreRepository;
+import com.scorevo.repository.IdempotencyKeyRepository;
 import com.scorevo.repository.ScoreRepository;
+import com.scorevo.repository.ScoreRollupRepository;
+import com.scorevo.repository.ScoreTotalRepository;
 import com.scorevo.repository.UserRepository;
 import com.scorevo.service.ActivityService;
 import com.scorevo.service.EmailService;
 import com.scorevo.service.ScoreService;
+import com.scorevo.util.KeysetCursor;
+import com.scorevo.util.LongIntHashMap;
+import com.scorevo.write.ScoreWriteExecutor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ScoreServiceImpl implements ScoreService {
 
+    private static final int MAX_LEADERBOARD_PAGE = 100;
+    private static final int DEFAULT_HISTORY_PAGE = 50;
+    private static final int MAX_HISTORY_PAGE = 500;
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int DEFAULT_SERIES_BUCKETS = 24;
+    private static final int MAX_SERIES_BUCKETS = 2000;
+
+    // Stand-ins for an absent time bound or cursor, kept within the MySQL DATETIME range
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final String EXPORT_QUERY = "SELECT new com.scorevo.payload.response.ScoreDTO(" +
+            "s.id, s.activity.id, s.user.id, s.user.username, s.points, s.timestamp) " +
+            "FROM Score s WHERE s.activity.id = :activityId AND s.checkpoint = false ORDER BY s.timestamp, s.id";
+
+    private static final String ARCHIVE_EXPORT_QUERY = "SELECT new com.scorevo.payload.response.ScoreDTO(" +
+            "a.id, a.activity.id, a.user.id, a.user.username, a.points, a.timestamp) " +
+            "FROM ArchivedScore a WHERE a.activity.id = :activityId ORDER BY a.timestamp, a.id";
+
+    private static final String ROLLUP_SOURCE_QUERY = "SELECT s.user.id, s.timestamp, s.points FROM Score s " +
+            "WHERE s.activity.id = :activityId AND s.checkpoint = false";
+
+    private static final String ARCHIVE_ROLLUP_SOURCE_QUERY = "SELECT a.user.id, a.timestamp, a.points " +
+            "FROM ArchivedScore a WHERE a.activity.id = :activityId";
+
+    @FunctionalInterface
+    private interface HistoryPageQuery {
+        List<Score> fetch(LocalDateTime from, LocalDateTime to, LocalDateTime cursorTime, Long cursorId, Limit limit);
+    }
+
     private final ScoreRepository scoreRepository;
+    private final ScoreTotalRepository scoreTotalRepository;
+    private final ScoreRollupRepository scoreRollupRepository;
+    private final ArchivedScoreRepository archivedScoreRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyCache idempotencyCache;
     private final ActivityRepository activityRepository;
     private final UserRepository userRepository;
     private final ActivityService activityService;
+    private final LeaderboardEngine leaderboardEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ScoreWriteExecutor scoreWriteExecutor;
+    private final PenaltyAllocator penaltyAllocator;
 //    private final EmailService emailService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows per round-trip when streaming exports. On MySQL this only streams with useCursorFetch=true in the JDBC URL
+    @Value("${scorevo.export.fetch-size:1000}")
+    private int exportFetchSize;
+
     @Autowired
     public ScoreServiceImpl(
             ScoreRepository scoreRepository,
+            ScoreTotalRepository scoreTotalRepository,
+            ScoreRollupRepository scoreRollupRepository,
+            ArchivedScoreRepository archivedScoreRepository,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            IdempotencyCache idempotencyCache,
             ActivityRepository activityRepository,
             UserRepository userRepository,
             ActivityService activityService,
+            LeaderboardEngine leaderboardEngine,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            ScoreWriteExecutor scoreWriteExecutor,
+            PenaltyAllocator penaltyAllocator,
             EmailService emailService) {
         this.scoreRepository = scoreRepository;
+        this.scoreTotalRepository = scoreTotalRepository;
+        this.scoreRollupRepository = scoreRollupRepository;
+        this.archivedScoreRepository = archivedScoreRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyCache = idempotencyCache;
         this.activityRepository = activityRepository;
         this.userRepository = userRepository;
         this.activityService = activityService;
+        this.leaderboardEngine = leaderboardEngine;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.scoreWriteExecutor = scoreWriteExecutor;
+        this.penaltyAllocator = penaltyAllocator;
 //        this.emailService = emailService;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Score> getActivityScores(Long activityId, Long currentUserId) {
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
@@ -55,10 +167,12 @@ public class ScoreServiceImpl implements ScoreService {
             throw new IllegalStateException("You must be a participant to view scores for this activity");
         }
 
-        return scoreRepository.findByActivityId(activityId);
+        return withArchived(archivedScoreRepository.findByActivityId(activityId),
+                scoreRepository.findByActivityId(activityId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Score> getUserActivityScores(Long activityId, Long userId, Long currentUserId) {
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
@@ -68,10 +182,78 @@ public class ScoreServiceImpl implements ScoreService {
             throw new IllegalStateException("You must be a participant to view scores for this activity");
         }
 
-        return scoreRepository.findByActivityIdAndUserId(activityId, userId);
+        return withArchived(archivedScoreRepository.findByActivityIdAndUserId(activityId, userId),
+                scoreRepository.findByActivityIdAndUserId(activityId, userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ScorePageDTO getActivityScoresPage(Long activityId, ScoreHistoryRequest historyRequest, Long currentUserId) {
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Check if the current user is a participant
+        if (!activityService.isParticipant(activity, currentUserId)) {
+            throw new IllegalStateException("You must be a participant to view scores for this activity");
+        }
+
+        return fetchHistoryPage(historyRequest,
+                (from, to, cursorTime, cursorId, limit) ->
+                        scoreRepository.findPageByActivityId(activityId, from, to, cursorTime, cursorId, limit),
+                (from, to, cursorTime, cursorId, limit) -> toScores(
+                        archivedScoreRepository.findPageByActivityId(activityId, from, to, cursorTime, cursorId, limit)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ScorePageDTO getUserActivityScoresPage(Long activityId, Long userId, ScoreHistoryRequest historyRequest,
+                                                  Long currentUserId) {
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Check if the current user is a participant
+        if (!activityService.isParticipant(activity, currentUserId)) {
+            throw new IllegalStateException("You must be a participant to view scores for this activity");
+        }
+
+        return fetchHistoryPage(historyRequest,
+                (from, to, cursorTime, cursorId, limit) ->
+                        scoreRepository.findPageByActivityIdAndUserId(activityId, userId, from, to, cursorTime, cursorId, limit),
+                (from, to, cursorTime, cursorId, limit) -> toScores(archivedScoreRepository.findPageByActivityIdAndUserId(
+                        activityId, userId, from, to, cursorTime, cursorId, limit)));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void exportActivityScores(Long activityId, ScoreExportFormat format, OutputStream out, Long currentUserId)
+            throws IOException {
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Check if the current user is a participant
+        if (!activityService.isParticipant(activity, currentUserId)) {
+            throw new IllegalStateException("You must be a participant to view scores for this activity");
+        }
+
+        // DTO projection rows are never attached to the persistence context, so memory stays flat.
+        // Archived rows are all older than hot ones, so streaming the archive first keeps the export in order;
+        // flatMap opens the hot query only once the archive is exhausted, and closes each stream after use
+        try (Stream<ScoreDTO> rows = Stream.of(ARCHIVE_EXPORT_QUERY, EXPORT_QUERY)
+                .flatMap(query -> entityManager.createQuery(query, ScoreDTO.class)
+                        .setParameter("activityId", activityId)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultStream())) {
+            if (format == ScoreExportFormat.CSV) {
+                writeCsv(rows, out);
+            } else {
+                writeNdjson(rows, out);
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Map<Long, Integer> getCurrentScores(Long activityId, Long currentUserId) {
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
@@ -81,19 +263,124 @@ public class ScoreServiceImpl implements ScoreService {
             throw new IllegalStateException("You must be a participant to view scores for this activity");
         }
 
-        List<Score> scores = scoreRepository.findByActivityId(activityId);
+        // Served from the materialized totals instead of folding the whole score history
+        return scoreTotalRepository.loadTotals(activityId).toMap();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TimeseriesDTO getTimeseries(Long activityId, ScoreRollup.Bucket bucket, LocalDateTime from, LocalDateTime to,
+                                       Long userId, Long currentUserId) {
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Check if the current user is a participant
+        if (!activityService.isParticipant(activity, currentUserId)) {
+            throw new IllegalStateException("You must be a participant to view scores for this activity");
+        }
+
+        // Default to the last DEFAULT_SERIES_BUCKETS buckets; the first bucket is widened to its start
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = bucket.truncate(from != null ? from : end.minus(DEFAULT_SERIES_BUCKETS - 1, bucket.unit()));
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (bucket.unit().between(start, end) >= MAX_SERIES_BUCKETS) {
+            throw new IllegalArgumentException("A series can span at most " + MAX_SERIES_BUCKETS + " buckets");
+        }
 
-        // Group scores by user and sum the points
-        return scores.stream()
-                .collect(Collectors.groupingBy(
-                        score -> score.getUser().getId(),
-                        Collectors.summingInt(Score::getPoints)
-                ));
+        // Served from the rollups: one row per user per non-empty bucket, whatever the number of scores
+        List<ScoreBucketDTO> buckets = userId == null
+                ? scoreRollupRepository.findSeries(activityId, bucket, start, end)
+                : scoreRollupRepository.findUserSeries(activityId, bucket, userId, start, end);
+        return new TimeseriesDTO(activityId, bucket, start, end, buckets);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LeaderboardDTO getLeaderboard(Long activityId, int offset, int limit, Long currentUserId) {
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Check if the current user is a participant
+        if (!activityService.isParticipant(activity, currentUserId)) {
+            throw new IllegalStateException("You must be a participant to view scores for this activity");
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_LEADERBOARD_PAGE));
+        return leaderboardEngine.getPage(activity, Math.max(0, offset), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LeaderboardDTO getLeaderboardAround(Long activityId, Long userId, int radius, Long currentUserId) {
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Check if the current user is a participant
+        if (!activityService.isParticipant(activity, currentUserId)) {
+            throw new IllegalStateException("You must be a participant to view scores for this activity");
+        }
+
+        int window = Math.max(0, Math.min(radius, MAX_LEADERBOARD_PAGE / 2));
+        LeaderboardDTO leaderboard = leaderboardEngine.getAround(activity, userId, window);
+        if (leaderboard == null) {
+            throw new EntityNotFoundException("User " + userId + " has no score in activity " + activityId);
+        }
+        return leaderboard;
+    }
+
+    @Override
+    public ScoreDTO addScoreIdempotently(Long activityId, ScoreRequest scoreRequest, Long currentUserId,
+                                         String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyKey.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + IdempotencyKey.MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = activityId + ":" + scoreRequest.getUserId() + ":" + scoreRequest.getPoints();
+
+        // A retry is answered from the original response, before any membership check or write
+        ScoreDTO replayed = findIdempotentResponse(currentUserId, idempotencyKey, fingerprint);
+        if (replayed != null) {
+            return replayed;
+        }
+
+        Activity.ActivityMode mode = activityService.getActivityById(activityId).getMode();
+        ScoreDTO created;
+        try {
+            created = scoreWriteExecutor.execute(activityId, () -> {
+                // A concurrent retry of the same request may have committed while this one was queued
+                ScoreDTO committed = findIdempotentResponse(currentUserId, idempotencyKey, fingerprint);
+                if (committed != null) {
+                    return committed;
+                }
+
+                Score score = mode == Activity.ActivityMode.PENALTY_BALANCE
+                        ? recordPenaltyBalanceScore(activityId, scoreRequest, currentUserId)
+                        : recordFreeIncrementScore(activityId, scoreRequest, currentUserId);
+                ScoreDTO scoreDTO = ScoreDTO.fromScore(score);
+                idempotencyKeyRepository.save(new IdempotencyKey(
+                        currentUserId, idempotencyKey, fingerprint, toJson(scoreDTO), LocalDateTime.now()));
+                return scoreDTO;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // The same key was committed concurrently through another activity's writer
+            ScoreDTO committed = findIdempotentResponse(currentUserId, idempotencyKey, fingerprint);
+            if (committed == null) {
+                throw e;
+            }
+            return committed;
+        }
+
+        idempotencyCache.put(currentUserId, idempotencyKey, fingerprint, created, idempotencyCache.getTtl());
+        return created;
     }
 
     @Override
-    @Transactional
     public Score addFreeIncrementScore(Long activityId, ScoreRequest scoreRequest, Long currentUserId) {
+        return scoreWriteExecutor.execute(activityId, () -> recordFreeIncrementScore(activityId, scoreRequest, currentUserId));
+    }
+
+    private Score recordFreeIncrementScore(Long activityId, ScoreRequest scoreRequest, Long currentUserId) {
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
 
@@ -124,6 +411,9 @@ public class ScoreServiceImpl implements ScoreService {
         score.setTimestamp(LocalDateTime.now());
 
         Score savedScore = scoreRepository.save(score);
+        applyToTotal(activityId, user.getId(), savedScore.getPoints());
+        applyToRollups(activityId, user.getId(), savedScore.getTimestamp(), savedScore.getPoints(), 1);
+        activityRepository.touchLastActivity(activityId, savedScore.getTimestamp());
 
         // Send score notification email
 //        try {
@@ -227,8 +517,11 @@ public class ScoreServiceImpl implements ScoreService {
 //    }
 
     @Override
-    @Transactional
     public Score addPenaltyBalanceScore(Long activityId, ScoreRequest scoreRequest, Long currentUserId) {
+        return scoreWriteExecutor.execute(activityId, () -> recordPenaltyBalanceScore(activityId, scoreRequest, currentUserId));
+    }
+
+    private Score recordPenaltyBalanceScore(Long activityId, ScoreRequest scoreRequest, Long currentUserId) {
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
 
@@ -257,73 +550,37 @@ public class ScoreServiceImpl implements ScoreService {
             throw new IllegalArgumentException("Penalty points must be positive.");
         }
 
-        // Calculate current total scores for all participants in this activity
-        List<Score> allScoresForActivity = scoreRepository.findByActivityId(activityId); // IMPORTANT: This must fetch ALL scores for the activity
-        Map<Long, Integer> currentScores = new HashMap<>();
-        for (Score s : allScoresForActivity) {
-            if (s.getUser() != null) { // Defensive check
-                currentScores.merge(s.getUser().getId(), s.getPoints(), Integer::sum);
-            }
-        }
-
-        // This variable will hold the points that eventually get assigned to userWithMistake.
-        // It starts as the full penalty and may be reduced if it offsets others' scores.
-        int netPointsForMistakeMaker = pointsFromRequest;
-
-        // IMPORTANT: Create a new list to avoid ConcurrentModificationException if activity.getParticipants() is a live collection
-        List<User> otherParticipants = new ArrayList<>();
-        for (User participant : activity.getParticipants()) {
-            if (!participant.getId().equals(userWithMistake.getId())) {
-                otherParticipants.add(participant);
-            }
-        }
+        // Current total scores for all participants in this activity, read from the materialized totals
+        LongIntHashMap currentScores = scoreTotalRepository.loadTotals(activityId);
+        Map<Long, LocalDateTime> lastScoredAt = loadLastScoredAt(activityId);
 
-        // For each other participant, try to offset their existing penalty scores
-        for (User otherUser : otherParticipants) {
-            // If all penalty points from the current mistake have been "used up" by offsetting, no need to continue
-            if (netPointsForMistakeMaker <= 0) {
-                break;
-            }
+        // Offset the penalty against the other participants' existing penalty scores
+        List<Score> pendingScores = new ArrayList<>();
+        int netPointsForMistakeMaker = offsetPenalty(activity, participantsById(activity), userWithMistake,
+                pointsFromRequest, currentScores, lastScoredAt, pendingScores);
 
-            int otherUserCurrentScore = currentScores.getOrDefault(otherUser.getId(), 0);
-
-            // Only offset if the other participant has an existing positive (penalty) score
-            if (otherUserCurrentScore > 0) {
-                // Determine how much of the other user's score can be reduced by the current mistake's points
-                int reductionAmount = Math.min(otherUserCurrentScore, netPointsForMistakeMaker);
-
-                if (reductionAmount > 0) {
-                    // Create a negative score entry to reduce otherUser's points
-                    Score reductionScore = new Score();
-                    reductionScore.setActivity(activity);
-                    reductionScore.setUser(otherUser);
-                    reductionScore.setPoints(-reductionAmount); // Negative points to offset their penalty
-                    reductionScore.setTimestamp(LocalDateTime.now());
-                    scoreRepository.save(reductionScore);
-
-                    // Decrease the points remaining from the current mistake
-                    netPointsForMistakeMaker -= reductionAmount;
-
-                    // Send notification about the score reduction
-//                    try {
-//                        emailService.sendScoreNotification(activityId, otherUser.getId(), -reductionAmount);
-//                    } catch (Exception e) {
-//                        System.err.println("Failed to send score reduction notification email to user "
-//                                + otherUser.getId() + ": " + e.getMessage());
-//                    }
-                }
-            }
-        }
+//        for (Score reductionScore : pendingScores) {
+//            // Send notification about the score reduction
+//            try {
+//                emailService.sendScoreNotification(activityId, reductionScore.getUser().getId(), reductionScore.getPoints());
+//            } catch (Exception e) {
+//                System.err.println("Failed to send score reduction notification email to user "
+//                        + reductionScore.getUser().getId() + ": " + e.getMessage());
+//            }
+//        }
 
-        // create and save the score for the user who made the mistake,
+        // create the score for the user who made the mistake,
         // with the net points (which might be 0 if fully offset, or the original pointsFromRequest or something in between).
-        Score mistakeMakerFinalScore = new Score();
-        mistakeMakerFinalScore.setActivity(activity);
-        mistakeMakerFinalScore.setUser(userWithMistake);
-        mistakeMakerFinalScore.setPoints(netPointsForMistakeMaker); // This is the actual points added to the mistake maker
-        mistakeMakerFinalScore.setTimestamp(LocalDateTime.now());
+        Score savedScore = newScore(activity, userWithMistake, netPointsForMistakeMaker);
+        pendingScores.add(savedScore);
 
-        Score savedScore = scoreRepository.save(mistakeMakerFinalScore);
+        // The offsets and the penalty are inserted as one JDBC batch
+        scoreRepository.saveAll(pendingScores);
+        for (Score pendingScore : pendingScores) {
+            applyToTotal(activityId, pendingScore.getUser().getId(), pendingScore.getPoints());
+        }
+        applyToRollups(activityId, pendingScores);
+        activityRepository.touchLastActivity(activityId, savedScore.getTimestamp());
 
         // Send score notification to the user who made the mistake,
         // reflecting the actual points added after any offsets.
@@ -338,8 +595,99 @@ public class ScoreServiceImpl implements ScoreService {
     }
 
     @Override
-    @Transactional
+    public BatchScoreResponse addScoresBatch(Long activityId, BatchScoreRequest batchRequest, Long currentUserId) {
+        return scoreWriteExecutor.execute(activityId, () -> recordScoresBatch(activityId, batchRequest, currentUserId));
+    }
+
+    private BatchScoreResponse recordScoresBatch(Long activityId, BatchScoreRequest batchRequest, Long currentUserId) {
+        List<ScoreRequest> items = batchRequest.getScores();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("A batch must contain at least one score");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch can contain at most " + MAX_BATCH_SIZE + " scores");
+        }
+
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + activityId));
+
+        // Participants are loaded once and checked in memory for every item
+        Map<Long, User> participants = participantsById(activity);
+
+        // Check if the current user is a participant
+        if (!participants.containsKey(currentUserId)) {
+            throw new IllegalStateException("You must be a participant to add scores to this activity");
+        }
+
+        // In PENALTY_BALANCE mode each item offsets against the totals left by the items before it
+        boolean penaltyBalance = activity.getMode() == Activity.ActivityMode.PENALTY_BALANCE;
+        LongIntHashMap currentScores = penaltyBalance ? scoreTotalRepository.loadTotals(activityId) : null;
+        Map<Long, LocalDateTime> lastScoredAt = penaltyBalance ? loadLastScoredAt(activityId) : null;
+
+        List<Score> pendingScores = new ArrayList<>();
+        LongIntHashMap deltas = new LongIntHashMap();
+        // Position in pendingScores of the score reported for each item, -1 when rejected
+        int[] reportedScore = new int[items.size()];
+        String[] errors = new String[items.size()];
+
+        for (int i = 0; i < items.size(); i++) {
+            ScoreRequest item = items.get(i);
+            errors[i] = validateBatchItem(item, participants);
+            if (errors[i] != null) {
+                reportedScore[i] = -1;
+                continue;
+            }
+
+            User user = participants.get(item.getUserId());
+            int points = item.getPoints();
+            if (penaltyBalance) {
+                int firstReduction = pendingScores.size();
+                points = offsetPenalty(activity, participants, user, points, currentScores, lastScoredAt, pendingScores);
+                for (int j = firstReduction; j < pendingScores.size(); j++) {
+                    Score reductionScore = pendingScores.get(j);
+                    deltas.addTo(reductionScore.getUser().getId(), reductionScore.getPoints());
+                }
+                currentScores.addTo(user.getId(), points);
+            }
+
+            reportedScore[i] = pendingScores.size();
+            pendingScores.add(newScore(activity, user, points));
+            deltas.addTo(user.getId(), points);
+        }
+
+        // Ids come from the pooled generator, so these inserts are flushed as JDBC batches
+        scoreRepository.saveAll(pendingScores);
+
+        // One totals update per scored user rather than one per row
+        deltas.forEach((userId, delta) -> applyToTotal(activityId, userId, delta));
+        applyToRollups(activityId, pendingScores);
+        if (!pendingScores.isEmpty()) {
+            activityRepository.touchLastActivity(activityId, pendingScores.get(pendingScores.size() - 1).getTimestamp());
+        }
+
+        List<BatchScoreResponse.ItemResult> results = new ArrayList<>(items.size());
+        int accepted = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (reportedScore[i] < 0) {
+                results.add(BatchScoreResponse.ItemResult.rejected(i, errors[i]));
+            } else {
+                results.add(BatchScoreResponse.ItemResult.created(i, ScoreDTO.fromScore(pendingScores.get(reportedScore[i]))));
+                accepted++;
+            }
+        }
+        return new BatchScoreResponse(accepted, items.size() - accepted, results);
+    }
+
+    @Override
     public void deleteScore(Long scoreId, Long currentUserId) {
+        Long activityId = scoreRepository.findActivityIdById(scoreId)
+                .orElseThrow(() -> new EntityNotFoundException("Score not found with id: " + scoreId));
+
+        // Serialized with the other writes of its activity; the score is re-read on the writer
+        scoreWriteExecutor.execute(activityId, () -> removeScore(scoreId, currentUserId));
+    }
+
+    private void removeScore(Long scoreId, Long currentUserId) {
         Score score = scoreRepository.findById(scoreId)
                 .orElseThrow(() -> new EntityNotFoundException("Score not found with id: " + scoreId));
 
@@ -350,6 +698,350 @@ public class ScoreServiceImpl implements ScoreService {
             throw new IllegalStateException("You must be a participant to delete scores in this activity");
         }
 
+        // A checkpoint stands in for archived scores and cannot be undone on its own
+        if (score.isCheckpoint()) {
+            throw new IllegalStateException("Checkpoint scores cannot be deleted");
+        }
+
         scoreRepository.deleteById(scoreId);
+        applyToTotal(activity.getId(), score.getUser().getId(), -score.getPoints());
+        applyToRollups(activity.getId(), score.getUser().getId(), score.getTimestamp(), -score.getPoints(), -1);
+    }
+
+    @Override
+    @Transactional
+    public void rebuildScoreTotals() {
+        scoreTotalRepository.deleteAllInBatch();
+        scoreTotalRepository.rebuildAll();
+        for (Long activityId : activityRepository.findAllIds()) {
+            rebuildRollups(activityId);
+        }
+        eventPublisher.publishEvent(new ScoreTotalsResetEvent(null));
+    }
+
+    @Override
+    public void rebuildScoreTotals(Long activityId) {
+        scoreWriteExecutor.execute(activityId, () -> {
+            scoreTotalRepository.deleteByActivityId(activityId);
+            scoreTotalRepository.rebuildForActivity(activityId);
+            rebuildRollups(activityId);
+            eventPublisher.publishEvent(new ScoreTotalsResetEvent(activityId));
+        });
+    }
+
+    @Override
+    public int repairScoreTotals() {
+        int repaired = 0;
+        for (Long activityId : activityRepository.findAllIds()) {
+            // Compared on the activity's writer so in-flight score writes cannot look like drift
+            boolean drifted = scoreWriteExecutor.execute(activityId, () -> {
+                // Aggregated by the database from the score history, compared against the materialized totals
+                LongIntHashMap expected = scoreRepository.aggregatePointsByUser(activityId);
+                if (expected.equals(scoreTotalRepository.loadTotals(activityId))) {
+                    return false;
+                }
+                scoreTotalRepository.deleteByActivityId(activityId);
+                scoreTotalRepository.rebuildForActivity(activityId);
+                rebuildRollups(activityId);
+                eventPublisher.publishEvent(new ScoreTotalsResetEvent(activityId));
+                return true;
+            });
+            if (drifted) {
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    @Override
+    public int compactScores(Long activityId, LocalDateTime cutoff) {
+        return scoreWriteExecutor.execute(activityId, () -> {
+            if (scoreRepository.countScoresBefore(activityId, cutoff) == 0) {
+                return 0;
+            }
+
+            // Per-user sums of everything being folded, earlier checkpoints included, so totals stay exact
+            List<Object[]> folds = scoreRepository.foldScoresBefore(activityId, cutoff);
+            int archived = archivedScoreRepository.archiveScoresBefore(activityId, cutoff, LocalDateTime.now());
+            scoreRepository.deleteScoresBefore(activityId, cutoff);
+
+            Activity activity = activityRepository.getReferenceById(activityId);
+            for (Object[] fold : folds) {
+                Score checkpoint = new Score();
+                checkpoint.setActivity(activity);
+                checkpoint.setUser(userRepository.getReferenceById((Long) fold[0]));
+                checkpoint.setPoints(((Number) fold[1]).intValue());
+                checkpoint.setTimestamp((LocalDateTime) fold[2]);
+                checkpoint.setCheckpoint(true);
+                scoreRepository.save(checkpoint);
+            }
+            return archived;
+        });
+    }
+
+    private void writeNdjson(Stream<ScoreDTO> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ScoreDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (ScoreDTO row : (Iterable<ScoreDTO>) rows::iterator) {
+                writer.writeValue(generator, row);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Stream<ScoreDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,activityId,userId,username,points,timestamp\n");
+        for (ScoreDTO row : (Iterable<ScoreDTO>) rows::iterator) {
+            writer.write(row.getId() + "," + row.getActivityId() + "," + row.getUserId() + ","
+                    + csvField(row.getUsername()) + "," + row.getPoints() + "," + row.getTimestamp() + "\n");
+        }
+        writer.flush();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // Fetch one page past the cursor, reading one extra row to know whether another page follows
+    private ScorePageDTO fetchHistoryPage(ScoreHistoryRequest historyRequest, HistoryPageQuery query,
+                                          HistoryPageQuery archiveQuery) {
+        int pageSize = historyRequest.getLimit() == null
+                ? DEFAULT_HISTORY_PAGE
+                : Math.max(1, Math.min(historyRequest.getLimit(), MAX_HISTORY_PAGE));
+        LocalDateTime from = historyRequest.getFrom() != null ? historyRequest.getFrom() : MIN_TIME;
+        LocalDateTime to = historyRequest.getTo() != null ? historyRequest.getTo() : MAX_TIME;
+
+        LocalDateTime cursorTime = MAX_TIME;
+        Long cursorId = Long.MAX_VALUE;
+        if (historyRequest.getCursor() != null) {
+            KeysetCursor position = KeysetCursor.decode(historyRequest.getCursor());
+            cursorTime = position.time();
+            cursorId = position.id();
+        }
+
+        List<Score> scores = query.fetch(from, to, cursorTime, cursorId, Limit.of(pageSize + 1));
+
+        // Archived rows are all older than hot ones, so the archive only tops up a page the hot rows could not fill
+        if (scores.size() <= pageSize) {
+            scores = new ArrayList<>(scores);
+            scores.addAll(archiveQuery.fetch(from, to, cursorTime, cursorId, Limit.of(pageSize + 1 - scores.size())));
+        }
+        String nextCursor = null;
+        if (scores.size() > pageSize) {
+            scores = scores.subList(0, pageSize);
+            Score last = scores.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getTimestamp(), last.getId()).encode();
+        }
+
+        List<ScoreDTO> scoreDTOs = new ArrayList<>(scores.size());
+        for (Score score : scores) {
+            scoreDTOs.add(ScoreDTO.fromScore(score));
+        }
+        return new ScorePageDTO(scoreDTOs, nextCursor);
+    }
+
+    // Offset a penalty against the positive balances of the other participants, as decided by the
+    // allocation policy. Adds the offset scores to reductionScores, keeps currentScores and lastScoredAt
+    // current for the next penalty, and returns the points left for the user who made the mistake
+    private int offsetPenalty(Activity activity, Map<Long, User> participants, User userWithMistake, int points,
+                              LongIntHashMap currentScores, Map<Long, LocalDateTime> lastScoredAt,
+                              List<Score> reductionScores) {
+        List<PenaltyAllocator.Candidate> candidates = new ArrayList<>();
+        for (User participant : participants.values()) {
+            int balance = currentScores.get(participant.getId(), 0);
+            // Only participants with an existing positive (penalty) score can be offset
+            if (balance > 0 && !participant.getId().equals(userWithMistake.getId())) {
+                candidates.add(new PenaltyAllocator.Candidate(participant.getId(), balance,
+                        lastScoredAt != null ? lastScoredAt.get(participant.getId()) : null));
+            }
+        }
+
+        PenaltyAllocator.Allocation allocation = penaltyAllocator.allocate(points, candidates);
+        for (PenaltyAllocator.Offset offset : allocation.offsets()) {
+            // Negative points to offset their penalty
+            Score reductionScore = newScore(activity, participants.get(offset.userId()), -offset.amount());
+            reductionScores.add(reductionScore);
+            currentScores.addTo(offset.userId(), -offset.amount());
+            if (lastScoredAt != null) {
+                lastScoredAt.put(offset.userId(), reductionScore.getTimestamp());
+            }
+        }
+        if (lastScoredAt != null) {
+            lastScoredAt.put(userWithMistake.getId(), LocalDateTime.now());
+        }
+        return allocation.remaining();
+    }
+
+    // Time of each user's latest score, only read when the allocation policy orders by it
+    private Map<Long, LocalDateTime> loadLastScoredAt(Long activityId) {
+        if (!penaltyAllocator.getPolicy().ordersByAge()) {
+            return null;
+        }
+        Map<Long, LocalDateTime> lastScoredAt = new HashMap<>();
+        for (Object[] row : scoreRepository.findLastScoredAtByUser(activityId)) {
+            lastScoredAt.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+        return lastScoredAt;
+    }
+
+    private static Map<Long, User> participantsById(Activity activity) {
+        Map<Long, User> participants = new HashMap<>();
+        for (User participant : activity.getParticipants()) {
+            participants.put(participant.getId(), participant);
+        }
+        return participants;
+    }
+
+    private static Score newScore(Activity activity, User user, int points) {
+        Score score = new Score();
+        score.setActivity(activity);
+        score.setUser(user);
+        score.setPoints(points);
+        score.setTimestamp(LocalDateTime.now());
+        return score;
+    }
+
+    // Returns why a batch item cannot be recorded, or null when it is valid
+    private static String validateBatchItem(ScoreRequest item, Map<Long, User> participants) {
+        if (item == null || item.getUserId() == null) {
+            return "User ID is required";
+        }
+        if (item.getPoints() == null || item.getPoints() < 1) {
+            return "Points must be at least 1";
+        }
+        if (!participants.containsKey(item.getUserId())) {
+            return "The user must be a participant in this activity";
+        }
+        return null;
+    }
+
+    // Original response stored under a user's idempotency key, or null if the key is unused or expired
+    private ScoreDTO findIdempotentResponse(Long userId, String key, String fingerprint) {
+        IdempotencyCache.Entry cached = idempotencyCache.get(userId, key);
+        if (cached != null) {
+            return checkFingerprint(cached.fingerprint(), fingerprint, cached.response());
+        }
+
+        IdempotencyKey stored = idempotencyKeyRepository.findById(new IdempotencyKey.IdempotencyKeyId(userId, key))
+                .orElse(null);
+        if (stored == null) {
+            return null;
+        }
+        Duration remaining = Duration.between(LocalDateTime.now(), stored.getCreatedAt().plus(idempotencyCache.getTtl()));
+        if (remaining.isNegative()) {
+            // Expired but not cleaned up yet; free the key for reuse
+            idempotencyKeyRepository.delete(stored);
+            idempotencyKeyRepository.flush();
+            return null;
+        }
+
+        ScoreDTO response;
+        try {
+            response = objectMapper.readValue(stored.getResponse(), ScoreDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+        idempotencyCache.put(userId, key, stored.getFingerprint(), response, remaining);
+        return checkFingerprint(stored.getFingerprint(), fingerprint, response);
+    }
+
+    private static ScoreDTO checkFingerprint(String stored, String requested, ScoreDTO response) {
+        if (!stored.equals(requested)) {
+            throw new IllegalArgumentException("Idempotency key was already used for a different request");
+        }
+        return response;
+    }
+
+    private String toJson(ScoreDTO scoreDTO) {
+        try {
+            return objectMapper.writeValueAsString(scoreDTO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize score response", e);
+        }
+    }
+
+    // Archived rows are all older than hot ones, so listing the archive first keeps the history in order
+    private static List<Score> withArchived(List<ArchivedScore> archived, List<Score> hot) {
+        List<Score> scores = toScores(archived);
+        scores.addAll(hot);
+        return scores;
+    }
+
+    private static List<Score> toScores(List<ArchivedScore> archived) {
+        List<Score> scores = new ArrayList<>(archived.size());
+        for (ArchivedScore archivedScore : archived) {
+            scores.add(archivedScore.toScore());
+        }
+        return scores;
+    }
+
+    // Apply a points delta to a user's materialized total, creating the row on their first score
+    private void applyToTotal(Long activityId, Long userId, int delta) {
+        if (scoreTotalRepository.incrementTotal(activityId, userId, delta) == 0) {
+            scoreTotalRepository.save(new ScoreTotal(activityId, userId, delta));
+        }
+        eventPublisher.publishEvent(new ScoreChangedEvent(activityId, userId, delta));
+    }
+
+    // Apply a score row to the HOUR, DAY and WEEK rollups of its user, creating rows on the first score in a bucket
+    private void applyToRollups(Long activityId, Long userId, LocalDateTime timestamp, int points, int count) {
+        for (ScoreRollup.Bucket bucket : ScoreRollup.Bucket.values()) {
+            LocalDateTime bucketStart = bucket.truncate(timestamp);
+            if (scoreRollupRepository.incrementRollup(activityId, userId, bucket, bucketStart, points, count) == 0) {
+                scoreRollupRepository.save(new ScoreRollup(activityId, userId, bucket, bucketStart, points, count));
+            }
+        }
+    }
+
+    // Sum the scores per user and hour first, so a batch costs one rollup update per user and hour rather than per row
+    private void applyToRollups(Long activityId, List<Score> scores) {
+        Map<HourlyKey, int[]> hourly = new HashMap<>();
+        for (Score score : scores) {
+            HourlyKey key = new HourlyKey(score.getUser().getId(), ScoreRollup.Bucket.HOUR.truncate(score.getTimestamp()));
+            int[] sums = hourly.computeIfAbsent(key, k -> new int[2]);
+            sums[0] += score.getPoints();
+            sums[1]++;
+        }
+        hourly.forEach((key, sums) -> applyToRollups(activityId, key.userId(), key.hourStart(), sums[0], sums[1]));
+    }
+
+    // Recompute the rollups of an activity from its score history
+    private void rebuildRollups(Long activityId) {
+        scoreRollupRepository.deleteByActivityId(activityId);
+
+        Map<ScoreRollup.ScoreRollupId, ScoreRollup> rollups = new HashMap<>();
+        // Raw scores only, hot and archived; checkpoints would put folded points in the wrong bucket
+        try (Stream<Object[]> rows = Stream.of(ARCHIVE_ROLLUP_SOURCE_QUERY, ROLLUP_SOURCE_QUERY)
+                .flatMap(query -> entityManager.createQuery(query, Object[].class)
+                        .setParameter("activityId", activityId)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                        .getResultStream())) {
+            rows.forEach(row -> {
+                Long userId = (Long) row[0];
+                LocalDateTime timestamp = (LocalDateTime) row[1];
+                int points = (Integer) row[2];
+                for (ScoreRollup.Bucket bucket : ScoreRollup.Bucket.values()) {
+                    LocalDateTime bucketStart = bucket.truncate(timestamp);
+                    ScoreRollup rollup = rollups.computeIfAbsent(
+                            new ScoreRollup.ScoreRollupId(activityId, userId, bucket, bucketStart),
+                            id -> new ScoreRollup(activityId, userId, bucket, bucketStart, 0, 0));
+                    rollup.setPoints(rollup.getPoints() + points);
+                    rollup.setScoreCount(rollup.getScoreCount() + 1);
+                }
+            });
+        }
+
+        // Known to be new, so persist directly instead of save, which would look each one up first
+        rollups.values().forEach(entityManager::persist);
+    }
+
+    private record HourlyKey(Long userId, LocalDateTime hourStart) {
     }
-}
\ No newline at end of file
+}
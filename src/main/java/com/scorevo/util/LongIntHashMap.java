@@ -0,0 +1,167 @@
+package com.scorevo.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive int values.
+ * Used for per-user score aggregates so folding thousands of rows does not
+ * box a Long and an Integer per entry. Not thread-safe.
+ */
+public class LongIntHashMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return used[indexOf(key)];
+    }
+
+    /**
+     * Value mapped to a key, or the given default if absent
+     */
+    public int get(long key, int defaultValue) {
+        int slot = indexOf(key);
+        return used[slot] ? values[slot] : defaultValue;
+    }
+
+    public void put(long key, int value) {
+        int slot = indexOf(key);
+        if (used[slot]) {
+            values[slot] = value;
+            return;
+        }
+        insertAt(slot, key, value);
+    }
+
+    /**
+     * Add a delta to the value of a key, starting from zero if absent, and return the new value
+     */
+    public int addTo(long key, int delta) {
+        int slot = indexOf(key);
+        if (used[slot]) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        insertAt(slot, key, delta);
+        return delta;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Copy into a boxed map, e.g. for JSON serialization
+     */
+    public Map<Long, Integer> toMap() {
+        Map<Long, Integer> map = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        forEach(map::put);
+        return map;
+    }
+
+    private void insertAt(int slot, long key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // Slot holding the key, or the empty slot where it would be inserted
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                int target = indexOf(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+                used[target] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongIntHashMap other) || other.size != size) return false;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot] && (!other.containsKey(keys[slot]) || other.get(keys[slot], 0) != values[slot])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                hash += Long.hashCode(keys[slot]) ^ values[slot];
+            }
+        }
+        return hash;
+    }
+}
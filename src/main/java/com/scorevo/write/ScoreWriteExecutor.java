@@ -0,0 +1,169 @@
+package com.scorevo.write;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes score mutations per activity. Activities are striped over a fixed
+ * set of mailboxes, and only the caller holding a mailbox's lock may write, so two
+ * writes to the same activity never run concurrently and read-compute-write logic
+ * like penalty offsetting needs no database locks.
+ * <p>
+ * Mutations queue up while the lock is busy. The next caller to take the lock
+ * drains the mailbox and commits everything queued as one transaction (group commit).
+ * If any mutation in a group fails, the group is rolled back and its mutations are
+ * replayed one transaction each, so only the failing one fails. Mutations must
+ * therefore be safe to re-run from scratch.
+ * <p>
+ * Groups run on the calling thread rather than a dedicated writer thread: with
+ * open-in-view a waiting request already holds a pooled connection, and writer
+ * threads needing connections of their own could starve the pool.
+ */
+@Component
+public class ScoreWriteExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreWriteExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final Stripe[] stripes;
+    private final int maxGroupSize;
+
+    public ScoreWriteExecutor(
+            PlatformTransactionManager transactionManager,
+            @Value("${scorevo.writes.stripes:64}") int stripeCount,
+            @Value("${scorevo.writes.max-group-size:64}") int maxGroupSize) {
+        // A group commits on its own, never as part of a transaction the lock holder happens to be in
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Run a mutation serialized with the other writes of the given activity
+     * and return its result once its transaction has committed.
+     */
+    public <T> T execute(Long activityId, Supplier<T> mutation) {
+        Stripe stripe = stripes[Math.floorMod(activityId.hashCode(), stripes.length)];
+
+        // Called from a mutation already running on this stripe: join its group
+        if (stripe.lock.isHeldByCurrentThread()) {
+            return mutation.get();
+        }
+
+        Task<T> task = new Task<>(mutation);
+        stripe.mailbox.add(task);
+        while (!task.done) {
+            stripe.lock.lock();
+            try {
+                // The previous lock holder may already have committed this task in its group
+                if (!task.done) {
+                    commitGroup(stripe.drain(maxGroupSize));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return task.get();
+    }
+
+    /**
+     * Run a mutation serialized with the other writes of the given activity
+     * and return once its transaction has committed.
+     */
+    public void execute(Long activityId, Runnable mutation) {
+        execute(activityId, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    private void commitGroup(List<Task<?>> group) {
+        if (group.size() > 1) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> group.forEach(Task::run));
+                group.forEach(Task::succeed);
+                return;
+            } catch (RuntimeException | Error e) {
+                // Nothing from the group was committed; fall through and isolate the failure
+                logger.debug("Group of {} score writes rolled back, replaying individually: {}",
+                        group.size(), e.getMessage());
+            }
+        }
+
+        for (Task<?> task : group) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> task.run());
+                task.succeed();
+            } catch (RuntimeException | Error e) {
+                task.fail(e);
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<Task<?>> mailbox = new ConcurrentLinkedQueue<>();
+
+        private List<Task<?>> drain(int maxGroupSize) {
+            List<Task<?>> group = new ArrayList<>();
+            Task<?> task;
+            while (group.size() < maxGroupSize && (task = mailbox.poll()) != null) {
+                group.add(task);
+            }
+            return group;
+        }
+    }
+
+    private static final class Task<T> {
+        private final Supplier<T> mutation;
+        private T value;
+        private Throwable failure;
+        // Set last, so a waiter that sees it also sees the value or failure
+        private volatile boolean done;
+
+        private Task(Supplier<T> mutation) {
+            this.mutation = mutation;
+        }
+
+        private void run() {
+            value = mutation.get();
+        }
+
+        private void succeed() {
+            done = true;
+        }
+
+        private void fail(Throwable e) {
+            value = null;
+            failure = e;
+            done = true;
+        }
+
+        private T get() {
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            return value;
+        }
+    }
+}
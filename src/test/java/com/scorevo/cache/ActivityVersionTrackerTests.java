@@ -0,0 +1,95 @@
+package com.scorevo.cache;
+
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.event.UserChangedEvent;
+import com.scorevo.repository.ActivityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityVersionTrackerTests {
+
+    // Activities per participant, as the database would return them
+    private final Map<Long, List<Long>> activities = new HashMap<>();
+    private final ActivityVersionTracker tracker = new ActivityVersionTracker(repository(), new PrimaryReads());
+
+    @Test
+    void activityChangeMovesOnlyItsOwnTag() {
+        String first = tracker.getETag(1L);
+        String second = tracker.getETag(2L);
+
+        tracker.onActivityChanged(new ActivityChangedEvent(1L));
+
+        assertNotEquals(first, tracker.getETag(1L));
+        assertEquals(second, tracker.getETag(2L));
+    }
+
+    @Test
+    void userChangeMovesTheTagsOfTheirActivities() {
+        activities.put(7L, List.of(1L, 3L));
+        String first = tracker.getETag(1L);
+        String second = tracker.getETag(2L);
+        String third = tracker.getETag(3L);
+
+        tracker.onUserChanged(new UserChangedEvent(7L));
+
+        assertNotEquals(first, tracker.getETag(1L));
+        assertEquals(second, tracker.getETag(2L));
+        assertNotEquals(third, tracker.getETag(3L));
+    }
+
+    @Test
+    void globalResetMovesEveryTag() {
+        String first = tracker.getETag(1L);
+
+        tracker.onScoreTotalsReset(new ScoreTotalsResetEvent(null));
+
+        assertNotEquals(first, tracker.getETag(1L));
+    }
+
+    @Test
+    void onlyParticipantsGetOrMatchATag() {
+        String etag = tracker.getETag(1L);
+
+        MockHttpServletResponse member = new MockHttpServletResponse();
+        assertTrue(tracker.checkNotModified(1L, () -> true, request(etag, member)));
+        assertEquals(304, member.getStatus());
+
+        MockHttpServletResponse stranger = new MockHttpServletResponse();
+        assertFalse(tracker.checkNotModified(1L, () -> false, request(etag, stranger)));
+        assertNull(stranger.getHeader("ETag"));
+
+        MockHttpServletResponse stale = new MockHttpServletResponse();
+        tracker.bump(1L);
+        assertFalse(tracker.checkNotModified(1L, () -> true, request(etag, stale)));
+        assertEquals(tracker.getETag(1L), stale.getHeader("ETag"));
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/activities/1");
+        request.addHeader("If-None-Match", ifNoneMatch);
+        return new ServletWebRequest(request, response);
+    }
+
+    private ActivityRepository repository() {
+        return (ActivityRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ActivityRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findIdsByParticipantId" -> activities.getOrDefault((Long) args[0], List.of());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,122 @@
+package com.scorevo.cache;
+
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.repository.ActivityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MembershipCacheTests {
+
+    // Participants per activity, as the database would return them
+    private final Map<Long, List<Long>> participants = new HashMap<>();
+    private final List<String> queries = new ArrayList<>();
+    private Runnable duringLoad = () -> {
+    };
+
+    @Test
+    void loadsEachActivityOnce() {
+        participants.put(1L, List.of(3L, 7L, 9L));
+        MembershipCache cache = cache(10, 100);
+
+        assertTrue(cache.isMember(1L, 7L));
+        assertTrue(cache.isMember(1L, 3L));
+        assertFalse(cache.isMember(1L, 8L));
+        assertFalse(cache.isMember(2L, 7L));
+        assertEquals(List.of("load 1", "load 2"), queries);
+    }
+
+    @Test
+    void participantChangeDropsTheSet() {
+        participants.put(1L, List.of(3L, 7L));
+        MembershipCache cache = cache(10, 100);
+        assertTrue(cache.isMember(1L, 7L));
+
+        participants.put(1L, List.of(3L));
+        cache.onActivityChanged(new ActivityChangedEvent(1L));
+
+        assertFalse(cache.isMember(1L, 7L));
+        assertEquals(List.of("load 1", "load 1"), queries);
+    }
+
+    @Test
+    void setLoadedWhileAChangeCommittedIsNotCached() {
+        participants.put(1L, List.of(3L, 7L));
+        MembershipCache cache = cache(10, 100);
+        // The change commits and invalidates after the load has read the old participants
+        duringLoad = () -> {
+            duringLoad = () -> {
+            };
+            cache.invalidate(1L);
+            participants.put(1L, List.of(3L));
+        };
+
+        assertTrue(cache.isMember(1L, 7L));
+        assertFalse(cache.isMember(1L, 7L), "the stale set was not kept");
+        assertFalse(cache.isMember(1L, 7L));
+        assertEquals(List.of("load 1", "load 1"), queries);
+    }
+
+    @Test
+    void oversizedActivitiesAreCheckedByQuery() {
+        participants.put(1L, List.of(1L, 2L, 3L, 4L, 5L));
+        participants.put(2L, List.of(1L, 2L, 3L));
+        MembershipCache cache = cache(10, 3);
+
+        assertTrue(cache.isMember(1L, 4L));
+        assertFalse(cache.isMember(1L, 6L));
+        assertTrue(cache.isMember(2L, 3L));
+        assertTrue(cache.isMember(2L, 3L));
+        // Never cached, so each check loads one past the cap and falls back to an exists query
+        assertEquals(List.of("load 1", "exists 1 4", "load 1", "exists 1 6", "load 2"), queries);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedActivity() {
+        participants.put(1L, List.of(1L));
+        participants.put(2L, List.of(2L));
+        participants.put(3L, List.of(3L));
+        MembershipCache cache = cache(2, 100);
+
+        cache.isMember(1L, 1L);
+        cache.isMember(2L, 2L);
+        cache.isMember(1L, 1L);
+        cache.isMember(3L, 3L);
+        queries.clear();
+
+        cache.isMember(1L, 1L);
+        cache.isMember(3L, 3L);
+        cache.isMember(2L, 2L);
+        assertEquals(List.of("load 2"), queries);
+    }
+
+    private MembershipCache cache(int maxActivities, int maxMembers) {
+        ActivityRepository repository = (ActivityRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ActivityRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findParticipantIds" -> {
+                        Long activityId = (Long) args[0];
+                        queries.add("load " + activityId);
+                        List<Long> ids = participants.getOrDefault(activityId, List.of());
+                        duringLoad.run();
+                        int limit = ((Limit) args[1]).max();
+                        yield ids.subList(0, Math.min(limit, ids.size()));
+                    }
+                    case "existsByIdAndParticipantsId" -> {
+                        queries.add("exists " + args[0] + " " + args[1]);
+                        yield participants.getOrDefault((Long) args[0], List.of()).contains((Long) args[1]);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new MembershipCache(repository, new PrimaryReads(), maxActivities, maxMembers);
+    }
+}
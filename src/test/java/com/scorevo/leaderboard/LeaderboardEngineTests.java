@@ -0,0 +1,112 @@
+package com.scorevo.leaderboard;
+
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.ScoreChangedEvent;
+import com.scorevo.model.Activity;
+import com.scorevo.projection.ScoreTotalsProjection;
+import com.scorevo.repository.ScoreTotalRepository;
+import com.scorevo.util.LongIntHashMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardEngineTests {
+
+    private static final long ACTIVITY = 1L;
+    private static final long USER = 7L;
+
+    // Committed total of USER, as the database would return it
+    private final LongIntHashMap committed = new LongIntHashMap();
+    private final AtomicInteger loads = new AtomicInteger();
+    private Runnable duringLoad = () -> {
+    };
+
+    private final LeaderboardEngine engine = new LeaderboardEngine(
+            repository(), new PrimaryReads(), new DefaultListableBeanFactory().getBeanProvider(ScoreTotalsProjection.class), 10);
+
+    @Test
+    void changeCommittedDuringTheBuildIsCountedOnce() {
+        committed.put(USER, 10);
+        ScoreChangedEvent event = new ScoreChangedEvent(ACTIVITY, USER, 5);
+        // Commits while the totals are read, so they already include it
+        duringLoad = () -> {
+            engine.onScoreCommitting(event);
+            committed.addTo(USER, 5);
+        };
+
+        assertEquals(15, totalOf(USER));
+        duringLoad = () -> {
+        };
+        engine.onScoreChanged(event);
+        engine.onScoreCompleted(event);
+
+        assertEquals(15, totalOf(USER));
+    }
+
+    @Test
+    void changeCommittedBeforeTheBuildButAppliedAfterIsCountedOnce() {
+        committed.put(USER, 10);
+        ScoreChangedEvent event = new ScoreChangedEvent(ACTIVITY, USER, 5);
+        engine.onScoreCommitting(event);
+        committed.addTo(USER, 5);
+
+        assertEquals(15, totalOf(USER));
+        engine.onScoreChanged(event);
+        engine.onScoreCompleted(event);
+
+        assertEquals(15, totalOf(USER));
+    }
+
+    @Test
+    void changesAfterTheBuildAreApplied() {
+        committed.put(USER, 10);
+        assertEquals(10, totalOf(USER));
+
+        ScoreChangedEvent event = new ScoreChangedEvent(ACTIVITY, USER, 5);
+        engine.onScoreCommitting(event);
+        committed.addTo(USER, 5);
+        engine.onScoreChanged(event);
+        engine.onScoreCompleted(event);
+
+        assertEquals(15, totalOf(USER));
+        assertEquals(1, loads.get(), "the installed index is kept current instead of being reloaded");
+    }
+
+    @Test
+    void rolledBackChangeDoesNotKeepIndexesFromBeingInstalled() {
+        committed.put(USER, 10);
+        ScoreChangedEvent event = new ScoreChangedEvent(ACTIVITY, USER, 5);
+        engine.onScoreCommitting(event);
+        engine.onScoreCompleted(event);
+
+        assertEquals(10, totalOf(USER));
+        assertEquals(10, totalOf(USER));
+        assertEquals(1, loads.get());
+    }
+
+    private int totalOf(long userId) {
+        return engine.getStandings(ACTIVITY, Activity.ActivityMode.FREE_INCREMENT).getEntries().stream()
+                .filter(entry -> entry.getUserId() == userId)
+                .findFirst()
+                .orElseThrow()
+                .getTotal();
+    }
+
+    private ScoreTotalRepository repository() {
+        return (ScoreTotalRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ScoreTotalRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("loadTotals")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    loads.incrementAndGet();
+                    duringLoad.run();
+                    LongIntHashMap totals = new LongIntHashMap();
+                    committed.forEach(totals::put);
+                    return totals;
+                });
+    }
+}
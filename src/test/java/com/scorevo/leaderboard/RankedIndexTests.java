@@ -0,0 +1,135 @@
+package com.scorevo.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedIndexTests {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void matchesASortedReference(boolean highestFirst) {
+        RankedIndex index = new RankedIndex(highestFirst);
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(3);
+
+        for (int step = 0; step < 5000; step++) {
+            // Few users and a narrow range of totals, so updates and ties are frequent
+            long userId = random.nextInt(-20, 200);
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                int total = random.nextInt(-30, 30);
+                index.put(userId, total);
+                reference.put(userId, total);
+            } else if (operation < 8) {
+                int delta = random.nextInt(-10, 10);
+                index.add(userId, delta);
+                reference.merge(userId, delta, Integer::sum);
+            } else {
+                assertEquals(reference.remove(userId) != null, index.remove(userId));
+            }
+
+            if (step % 50 == 0) {
+                assertMatches(reference, index, highestFirst);
+            }
+        }
+        assertMatches(reference, index, highestFirst);
+    }
+
+    @Test
+    void tiesShareACompetitionRank() {
+        RankedIndex index = new RankedIndex(true);
+        index.put(1, 10);
+        index.put(2, 30);
+        index.put(3, 30);
+        index.put(4, 20);
+
+        assertEquals(1, index.rankOf(2));
+        assertEquals(1, index.rankOf(3));
+        assertEquals(3, index.rankOf(4));
+        assertEquals(4, index.rankOf(1));
+        // Ties are ordered by user id
+        assertEquals(0, index.positionOf(2));
+        assertEquals(1, index.positionOf(3));
+        assertEquals(3, index.rankOfTotal(20));
+        assertEquals(3, index.rankOfTotal(25));
+        assertEquals(5, index.rankOfTotal(0));
+    }
+
+    @Test
+    void lowestFirstRanksTheSmallestTotalFirst() {
+        RankedIndex index = new RankedIndex(false);
+        index.put(1, 10);
+        index.put(2, -5);
+        index.put(3, 40);
+
+        assertEquals(List.of(new RankedIndex.Entry(2, -5), new RankedIndex.Entry(1, 10), new RankedIndex.Entry(3, 40)),
+                index.range(0, 3));
+        assertEquals(1, index.rankOf(2));
+    }
+
+    @Test
+    void absentUsers() {
+        RankedIndex index = new RankedIndex(true);
+        index.put(1, 10);
+
+        assertEquals(-1, index.positionOf(2));
+        assertEquals(-1, index.rankOf(2));
+        assertNull(index.getTotal(2));
+        assertFalse(index.remove(2));
+        assertTrue(index.remove(1));
+        assertEquals(0, index.size());
+        assertTrue(index.range(0, 10).isEmpty());
+    }
+
+    @Test
+    void rangeIsClampedToTheIndex() {
+        RankedIndex index = new RankedIndex(true);
+        for (long userId = 0; userId < 10; userId++) {
+            index.put(userId, (int) userId);
+        }
+
+        assertEquals(List.of(new RankedIndex.Entry(1, 1), new RankedIndex.Entry(0, 0)), index.range(8, 5));
+        assertEquals(List.of(new RankedIndex.Entry(9, 9)), index.range(-3, 4));
+        assertTrue(index.range(10, 5).isEmpty());
+    }
+
+    private static void assertMatches(Map<Long, Integer> reference, RankedIndex index, boolean highestFirst) {
+        Comparator<Map.Entry<Long, Integer>> byTotal = Map.Entry.comparingByValue();
+        List<Map.Entry<Long, Integer>> sorted = new ArrayList<>(reference.entrySet());
+        sorted.sort((highestFirst ? byTotal.reversed() : byTotal).thenComparing(Map.Entry.comparingByKey()));
+
+        assertEquals(sorted.size(), index.size());
+        List<RankedIndex.Entry> expected = sorted.stream()
+                .map(entry -> new RankedIndex.Entry(entry.getKey(), entry.getValue()))
+                .toList();
+        assertEquals(expected, index.range(0, index.size()));
+
+        for (int position = 0; position < sorted.size(); position++) {
+            long userId = sorted.get(position).getKey();
+            int total = sorted.get(position).getValue();
+            int rank = position + 1;
+            while (rank > 1 && sorted.get(rank - 2).getValue() == total) {
+                rank--;
+            }
+            assertEquals(total, index.getTotal(userId));
+            assertEquals(position, index.positionOf(userId));
+            assertEquals(rank, index.rankOf(userId));
+        }
+
+        int offset = sorted.isEmpty() ? 0 : sorted.size() / 3;
+        assertEquals(expected.subList(offset, Math.min(expected.size(), offset + 7)), index.range(offset, 7));
+    }
+}
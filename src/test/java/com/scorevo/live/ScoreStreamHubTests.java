@@ -0,0 +1,146 @@
+package com.scorevo.live;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scorevo.cache.MembershipCache;
+import com.scorevo.datasource.PrimaryReads;
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.repository.ActivityRepository;
+import com.scorevo.repository.ScoreTotalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreStreamHubTests {
+
+    private static final int MAX_BACKLOG = 4;
+
+    // Participants per activity, as the database would return them
+    private final Map<Long, List<Long>> participants = new ConcurrentHashMap<>(Map.of(1L, List.of(1L, 2L)));
+    private final MembershipCache membershipCache = new MembershipCache(
+            proxy(ActivityRepository.class, (method, args) -> participants.getOrDefault((Long) args[0], List.of())),
+            new PrimaryReads(), 10, 100);
+    private final ScoreStreamHub hub = new ScoreStreamHub(
+            proxy(ScoreTotalRepository.class, (method, args) -> List.<Object[]>of(new Object[]{1L, 5})),
+            membershipCache, new ObjectMapper(), 10, 3600, 60_000, 2, MAX_BACKLOG);
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberIsDroppedWithoutHoldingUpOthers() {
+        CountDownLatch release = new CountDownLatch(1);
+        TestEmitter stalled = new TestEmitter(release);
+        TestEmitter live = new TestEmitter(null);
+        hub.subscribe(1L, 1L, stalled);
+        hub.subscribe(1L, 2L, live);
+        await(() -> stalled.frames.size() == 1 && live.frames.size() == 1);
+
+        // The stalled subscriber's sender is blocked in its first write while frames keep coming
+        int resends = MAX_BACKLOG + 3;
+        for (int i = 1; i <= resends; i++) {
+            hub.onScoreTotalsReset(new ScoreTotalsResetEvent(1L));
+            int received = 1 + i;
+            await(() -> live.frames.size() == received);
+        }
+        assertFalse(stalled.completed);
+
+        // Dropped once its backlog was full, and completed by its sender once the write returns
+        release.countDown();
+        await(() -> stalled.completed);
+        assertEquals(1, stalled.frames.size());
+        assertFalse(live.completed);
+    }
+
+    @Test
+    void removedParticipantsStreamIsClosed() {
+        TestEmitter removed = new TestEmitter(null);
+        TestEmitter kept = new TestEmitter(null);
+        hub.subscribe(1L, 1L, removed);
+        hub.subscribe(1L, 2L, kept);
+        await(() -> removed.frames.size() == 1 && kept.frames.size() == 1);
+
+        participants.put(1L, List.of(2L));
+        ActivityChangedEvent event = new ActivityChangedEvent(1L);
+        membershipCache.onActivityChanged(event);
+        hub.onActivityChanged(event);
+        await(() -> removed.completed);
+
+        hub.onScoreTotalsReset(new ScoreTotalsResetEvent(1L));
+        await(() -> kept.frames.size() == 2);
+        assertEquals(1, removed.frames.size());
+        assertFalse(kept.completed);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private interface Query {
+        Object run(Method method, Object[] args);
+    }
+
+    // Default methods run as written, the rest are answered by the query
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Query query) {
+        InvocationHandler handler = (proxy, method, args) -> method.isDefault()
+                ? InvocationHandler.invokeDefault(proxy, method, args)
+                : query.run(method, args);
+        return (T) Proxy.newProxyInstance(ScoreStreamHubTests.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // Records what the hub writes, blocking the first write until released if given a latch
+    private static final class TestEmitter extends SseEmitter {
+        private final List<Set<DataWithMediaType>> frames = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release;
+        private volatile boolean completed;
+
+        private TestEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            frames.add(items);
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
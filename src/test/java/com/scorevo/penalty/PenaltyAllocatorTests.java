@@ -0,0 +1,128 @@
+package com.scorevo.penalty;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PenaltyAllocatorTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @ParameterizedTest
+    @EnumSource(PenaltyAllocator.Policy.class)
+    void conservesPointsAndNeverOverdrawsABalance(PenaltyAllocator.Policy policy) {
+        PenaltyAllocator allocator = new PenaltyAllocator(policy);
+        Random random = new Random(7);
+
+        for (int round = 0; round < 2000; round++) {
+            List<PenaltyAllocator.Candidate> candidates = randomCandidates(random, random.nextInt(0, 60));
+            int points = random.nextInt(1, 500);
+
+            PenaltyAllocator.Allocation allocation = allocator.allocate(points, candidates);
+
+            Map<Long, Integer> balances = new HashMap<>();
+            candidates.forEach(candidate -> balances.put(candidate.userId(), candidate.balance()));
+            long totalBalance = candidates.stream().mapToLong(PenaltyAllocator.Candidate::balance).sum();
+
+            long offset = 0;
+            Set<Long> offsetUsers = new HashSet<>();
+            for (PenaltyAllocator.Offset entry : allocation.offsets()) {
+                assertTrue(entry.amount() > 0, "offsets are positive");
+                assertTrue(entry.amount() <= balances.get(entry.userId()), "no balance is overdrawn");
+                assertTrue(offsetUsers.add(entry.userId()), "each user is offset at most once");
+                offset += entry.amount();
+            }
+            assertEquals(points, offset + allocation.remaining(), "points are conserved");
+            assertTrue(allocation.remaining() >= 0);
+            // Points are only left over once every balance has been used up
+            assertEquals(Math.max(0, points - totalBalance), allocation.remaining());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(PenaltyAllocator.Policy.class)
+    void resultDoesNotDependOnCandidateOrder(PenaltyAllocator.Policy policy) {
+        PenaltyAllocator allocator = new PenaltyAllocator(policy);
+        Random random = new Random(11);
+
+        for (int round = 0; round < 200; round++) {
+            List<PenaltyAllocator.Candidate> candidates = randomCandidates(random, 40);
+            int points = random.nextInt(1, 300);
+            PenaltyAllocator.Allocation expected = allocator.allocate(points, candidates);
+
+            List<PenaltyAllocator.Candidate> shuffled = new ArrayList<>(candidates);
+            Collections.shuffle(shuffled, random);
+            assertEquals(expected, allocator.allocate(points, shuffled));
+        }
+    }
+
+    @Test
+    void largestFirstOffsetsTheHighestBalancesFirst() {
+        PenaltyAllocator allocator = new PenaltyAllocator(PenaltyAllocator.Policy.LARGEST_FIRST);
+        PenaltyAllocator.Allocation allocation = allocator.allocate(12, List.of(
+                new PenaltyAllocator.Candidate(1, 3, null),
+                new PenaltyAllocator.Candidate(2, 10, null),
+                new PenaltyAllocator.Candidate(3, 5, null)));
+
+        assertEquals(List.of(new PenaltyAllocator.Offset(2, 10), new PenaltyAllocator.Offset(3, 2)), allocation.offsets());
+        assertEquals(0, allocation.remaining());
+    }
+
+    @Test
+    void oldestFirstOffsetsTheLeastRecentlyScoredFirst() {
+        PenaltyAllocator allocator = new PenaltyAllocator(PenaltyAllocator.Policy.OLDEST_FIRST);
+        PenaltyAllocator.Allocation allocation = allocator.allocate(4, List.of(
+                new PenaltyAllocator.Candidate(1, 3, START.plusHours(2)),
+                new PenaltyAllocator.Candidate(2, 3, START.plusHours(1)),
+                new PenaltyAllocator.Candidate(3, 3, START.plusHours(3))));
+
+        assertEquals(List.of(new PenaltyAllocator.Offset(2, 3), new PenaltyAllocator.Offset(1, 1)), allocation.offsets());
+    }
+
+    @Test
+    void proportionalSplitsByBalanceAndGivesLeftoversToLargestRemainders() {
+        PenaltyAllocator allocator = new PenaltyAllocator(PenaltyAllocator.Policy.PROPORTIONAL);
+        // Exact shares 5 * 1/6, 5 * 2/6 and 5 * 3/6 = 0.83, 1.67 and 2.5
+        PenaltyAllocator.Allocation allocation = allocator.allocate(5, List.of(
+                new PenaltyAllocator.Candidate(3, 3, null),
+                new PenaltyAllocator.Candidate(1, 1, null),
+                new PenaltyAllocator.Candidate(2, 2, null)));
+
+        assertEquals(List.of(new PenaltyAllocator.Offset(1, 1), new PenaltyAllocator.Offset(2, 2),
+                new PenaltyAllocator.Offset(3, 2)), allocation.offsets());
+        assertEquals(0, allocation.remaining());
+    }
+
+    @Test
+    void penaltyLargerThanAllBalancesLeavesTheRestToThePenalizedUser() {
+        for (PenaltyAllocator.Policy policy : PenaltyAllocator.Policy.values()) {
+            PenaltyAllocator.Allocation allocation = new PenaltyAllocator(policy).allocate(20, List.of(
+                    new PenaltyAllocator.Candidate(1, 4, null),
+                    new PenaltyAllocator.Candidate(2, 6, null)));
+            assertEquals(10, allocation.remaining(), policy.name());
+        }
+    }
+
+    private static List<PenaltyAllocator.Candidate> randomCandidates(Random random, int count) {
+        List<PenaltyAllocator.Candidate> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Few distinct balances and times, so ties have to be broken
+            candidates.add(new PenaltyAllocator.Candidate(1000 + i, random.nextInt(1, 20),
+                    random.nextInt(4) == 0 ? null : START.plusMinutes(random.nextInt(10))));
+        }
+        return candidates;
+    }
+}
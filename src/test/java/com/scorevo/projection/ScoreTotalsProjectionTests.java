@@ -0,0 +1,191 @@
+package com.scorevo.projection;
+
+import com.scorevo.event.ScoreChangedEvent;
+import com.scorevo.event.ScoreTotalsResetEvent;
+import com.scorevo.repository.ScoreTotalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreTotalsProjectionTests {
+
+    @TempDir
+    Path directory;
+
+    // Materialized totals, as the database would return them
+    private final Map<Long, Map<Long, Integer>> database = new HashMap<>();
+    private int reloads;
+
+    @Test
+    void cleanShutdownIsReopenedFromTheSnapshot() throws Exception {
+        database.put(2L, Map.of(20L, 100, 21L, 50));
+        Map<Long, Map<Long, Integer>> expected = new HashMap<>();
+        Random random = new Random(9);
+
+        ScoreTotalsProjection projection = open();
+        expected.put(2L, new HashMap<>(database.get(2L)));
+        for (int i = 0; i < 10_000; i++) {
+            change(projection, expected, random.nextInt(1, 4), random.nextInt(1, 500), random.nextInt(-5, 10));
+        }
+        projection.close();
+        assertTrue(Files.exists(snapshot()));
+
+        int reloadsBefore = reloads;
+        ScoreTotalsProjection reopened = open();
+        assertEquals(reloadsBefore, reloads, "a clean snapshot is loaded without reading the database");
+        assertTotals(expected, reopened);
+        reopened.close();
+    }
+
+    @Test
+    void runWithoutACleanShutdownIsReloadedFromTheDatabase() throws Exception {
+        ScoreTotalsProjection projection = open();
+        projection.onScoreChanged(new ScoreChangedEvent(1L, 10L, 5));
+        projection.close();
+
+        ScoreTotalsProjection crashed = open();
+        assertFalse(Files.exists(snapshot()), "a loaded snapshot is not kept around for the next start");
+        crashed.onScoreChanged(new ScoreChangedEvent(1L, 10L, 1));
+
+        // The process dies without closing, so the next start finds no snapshot
+        database.put(1L, Map.of(10L, 42));
+        int reloadsBefore = reloads;
+        ScoreTotalsProjection reopened = open();
+        assertEquals(reloadsBefore + 1, reloads);
+        assertEquals(Map.of(10L, 42), reopened.getTotals(1L).toMap());
+        reopened.close();
+    }
+
+    @Test
+    void corruptSnapshotIsReloadedFromTheDatabase() throws Exception {
+        ScoreTotalsProjection projection = open();
+        projection.onScoreChanged(new ScoreChangedEvent(1L, 10L, 1));
+        projection.onScoreChanged(new ScoreChangedEvent(1L, 11L, 2));
+        projection.close();
+
+        // Flip a bit in the last total
+        int total = (int) Files.size(snapshot()) - 4 - 4;
+        byte[] bytes = read(total, 4);
+        bytes[3] ^= 1;
+        overwrite(total, bytes);
+
+        database.put(1L, Map.of(10L, 7));
+        int reloadsBefore = reloads;
+        ScoreTotalsProjection reopened = open();
+        assertEquals(reloadsBefore + 1, reloads);
+        assertEquals(Map.of(10L, 7), reopened.getTotals(1L).toMap());
+        reopened.close();
+    }
+
+    @Test
+    void resetsReplaceTotalsWithTheDatabases() throws Exception {
+        ScoreTotalsProjection projection = open();
+        projection.onScoreChanged(new ScoreChangedEvent(1L, 10L, 5));
+        projection.onScoreChanged(new ScoreChangedEvent(2L, 20L, 5));
+
+        database.put(1L, Map.of(10L, 3, 11L, 4));
+        projection.onScoreTotalsReset(new ScoreTotalsResetEvent(1L));
+        assertEquals(Map.of(10L, 3, 11L, 4), projection.getTotals(1L).toMap());
+        assertEquals(Map.of(20L, 5), projection.getTotals(2L).toMap());
+
+        // A reset of every activity drops the ones the database no longer has totals for
+        projection.onScoreTotalsReset(new ScoreTotalsResetEvent(null));
+        assertEquals(Map.of(10L, 3, 11L, 4), projection.getTotals(1L).toMap());
+        assertNull(projection.getTotals(2L));
+        projection.close();
+    }
+
+    private ScoreTotalsProjection open() throws IOException {
+        ScoreTotalsProjection projection = new ScoreTotalsProjection(repository(), transactionManager(), directory.toString());
+        projection.open();
+        return projection;
+    }
+
+    private static void change(ScoreTotalsProjection projection, Map<Long, Map<Long, Integer>> expected,
+                               long activityId, long userId, int delta) {
+        projection.onScoreChanged(new ScoreChangedEvent(activityId, userId, delta));
+        expected.computeIfAbsent(activityId, id -> new HashMap<>()).merge(userId, delta, Integer::sum);
+    }
+
+    private static void assertTotals(Map<Long, Map<Long, Integer>> expected, ScoreTotalsProjection projection) {
+        expected.forEach((activityId, totals) -> assertEquals(totals, projection.getTotals(activityId).toMap()));
+    }
+
+    private Path snapshot() {
+        return directory.resolve(ScoreTotalsProjection.SNAPSHOT_FILE);
+    }
+
+    private byte[] read(int position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot())) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            channel.read(buffer, position);
+            return buffer.array();
+        }
+    }
+
+    private void overwrite(int position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private ScoreTotalRepository repository() {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "loadTotals" -> InvocationHandler.invokeDefault(proxy, method, args);
+            case "findTotalsByActivityId" -> {
+                List<Object[]> rows = new ArrayList<>();
+                database.getOrDefault((Long) args[0], Map.of()).forEach((userId, total) -> rows.add(new Object[]{userId, total}));
+                yield rows;
+            }
+            case "streamAllTotals" -> {
+                reloads++;
+                List<Object[]> rows = new ArrayList<>();
+                database.forEach((activityId, totals) -> totals.forEach((userId, total) ->
+                        rows.add(new Object[]{activityId, userId, total})));
+                yield rows.stream();
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+        return (ScoreTotalRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ScoreTotalRepository.class}, handler);
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+}
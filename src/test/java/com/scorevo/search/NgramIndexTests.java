@@ -0,0 +1,110 @@
+package com.scorevo.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NgramIndexTests {
+
+    @Test
+    void ranksWholeWordsOverPrefixesOverOtherFields() {
+        NgramIndex index = new NgramIndex();
+        index.put(4, "Board games", "Chess nights");
+        index.put(3, "Speed chess", null);
+        index.put(2, "Chessboard repairs", null);
+        index.put(1, "Chess club", null);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), search(index, "chess"));
+        assertEquals(List.of(2L), search(index, "chessb"));
+    }
+
+    @Test
+    void shortWordsMatchWordPrefixesOnly() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, "Chess club");
+        index.put(2, "Ski trip");
+
+        assertEquals(List.of(1L), search(index, "c"));
+        assertEquals(List.of(1L), search(index, "cl"));
+        // "ss" is inside "chess" but starts no word
+        assertEquals(List.of(), search(index, "ss"));
+        // From three characters on, anywhere in a word
+        assertEquals(List.of(1L), search(index, "ess"));
+    }
+
+    @Test
+    void everyQueryWordMustMatch() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, "Chess club");
+        index.put(2, "Chess masters");
+
+        assertEquals(List.of(2L), search(index, "chess mas"));
+        assertEquals(List.of(), search(index, "chess golf"));
+    }
+
+    @Test
+    void havingEveryTrigramIsNotHavingTheWord() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, "abcxbcd");
+
+        assertEquals(List.of(), search(index, "abcd"));
+        assertEquals(List.of(1L), search(index, "bcd"));
+    }
+
+    @Test
+    void ignoresCaseAccentsAndPunctuation() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, "Über-Léague, Zürich");
+
+        assertEquals(List.of(1L), search(index, "uber league"));
+        assertEquals(List.of(1L), search(index, "ZURI"));
+        assertEquals(List.of(), search(index, "  ,- "));
+    }
+
+    @Test
+    void fewerWordsInThePrimaryFieldBreakTies() {
+        NgramIndex index = new NgramIndex();
+        index.put(6, "Go club tonight");
+        index.put(5, "Go");
+
+        assertEquals(List.of(5L, 6L), search(index, "go"));
+    }
+
+    @Test
+    void replacingOrRemovingADocumentDropsItsOldText() {
+        NgramIndex index = new NgramIndex();
+        index.put(1, "Chess club");
+        index.put(1, "Go club");
+
+        assertEquals(List.of(), search(index, "chess"));
+        assertEquals(List.of(1L), search(index, "go"));
+        assertEquals(1, index.size());
+
+        index.remove(1);
+        index.remove(1);
+        assertEquals(List.of(), search(index, "club"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void restrictsToTheGivenDocumentsFilterAndLimit() {
+        NgramIndex index = new NgramIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, "Team " + id);
+        }
+
+        assertEquals(List.of(2L, 3L), index.search("team", Set.of(2L, 3L, 42L), id -> true, 10));
+        assertEquals(List.of(2L), index.search("team", Set.of(2L, 3L), id -> id % 2 == 0, 10));
+        assertEquals(3, index.search("team", null, id -> true, 3).size());
+        assertTrue(index.search("team", Set.of(), id -> true, 10).isEmpty());
+        assertTrue(index.search("team", null, id -> true, 0).isEmpty());
+    }
+
+    private static List<Long> search(NgramIndex index, String query) {
+        return index.search(query, null, id -> true, 10);
+    }
+}
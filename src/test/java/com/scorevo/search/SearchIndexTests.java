@@ -0,0 +1,185 @@
+package com.scorevo.search;
+
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.event.UserChangedEvent;
+import com.scorevo.model.Activity;
+import com.scorevo.model.User;
+import com.scorevo.payload.response.ActivityDTO;
+import com.scorevo.payload.response.ActivitySearchHitDTO;
+import com.scorevo.payload.response.UserSearchHitDTO;
+import com.scorevo.repository.ActivityRepository;
+import com.scorevo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTests {
+
+    // Rows as the database would return them
+    private final Map<Long, ActivityDTO> activities = new HashMap<>();
+    private final Map<Long, List<Long>> members = new HashMap<>();
+    private final Map<Long, User> users = new HashMap<>();
+    private Runnable duringRebuild = () -> {
+    };
+
+    private SearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        activity(1, "Chess club", 1L, 2L);
+        activity(2, "Chess masters", 3L);
+        user(1, "alice", "alice@x.io");
+        user(2, "bob", "bob@x.io");
+        user(3, "carol", "carol@y.io");
+        user(4, "alina", "alina@z.io");
+
+        searchIndex = new SearchIndex(proxy(ActivityRepository.class, this::activityQuery),
+                proxy(UserRepository.class, this::userQuery));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void activitiesAreLimitedToTheSearchersOwn() {
+        assertEquals(List.of(1L), activityIds("chess", 1L));
+        assertEquals(List.of(2L), activityIds("chess", 3L));
+        assertEquals(List.of(), activityIds("chess", 4L));
+    }
+
+    @Test
+    void coMembersComeFirstAndStrangersWithoutEmail() {
+        List<UserSearchHitDTO> hits = searchIndex.searchUsers("al", 1L, 10);
+
+        assertEquals(List.of(new UserSearchHitDTO(1L, "alice", "alice@x.io"), new UserSearchHitDTO(4L, "alina", null)),
+                hits);
+    }
+
+    @Test
+    void strangersMatchByEmailOnlyWhenTypedInFull() {
+        assertEquals(List.of(), searchIndex.searchUsers("y.io", 1L, 10));
+        assertEquals(List.of(), searchIndex.searchUsers("carol@y", 1L, 10));
+        assertEquals(List.of(new UserSearchHitDTO(3L, "carol", "carol@y.io")),
+                searchIndex.searchUsers(" Carol@Y.io ", 1L, 10));
+        // Co-members match on part of their email
+        assertEquals(List.of(2L), searchIndex.searchUsers("bob@x", 1L, 10).stream().map(UserSearchHitDTO::getId).toList());
+    }
+
+    @Test
+    void limitIsCapped() {
+        for (long id = 10; id < 100; id++) {
+            user(id, "player" + id, "player" + id + "@x.io");
+        }
+        searchIndex.rebuild();
+
+        assertEquals(5, searchIndex.searchUsers("player", 1L, 5).size());
+        assertEquals(SearchIndex.MAX_RESULTS, searchIndex.searchUsers("player", 1L, 1000).size());
+        assertTrue(searchIndex.searchUsers("player", 1L, -1).isEmpty());
+    }
+
+    @Test
+    void followsActivityAndUserChanges() {
+        activities.get(1L).setName("Go club");
+        members.put(1L, List.of(2L));
+        searchIndex.onActivityChanged(new ActivityChangedEvent(1L));
+
+        assertEquals(List.of(), activityIds("chess", 2L));
+        assertEquals(List.of(1L), activityIds("go", 2L));
+        // No longer a participant, so neither the activity nor bob's email
+        assertEquals(List.of(), activityIds("go", 1L));
+        assertEquals(List.of(new UserSearchHitDTO(2L, "bob", null)), searchIndex.searchUsers("bob", 1L, 10));
+
+        users.get(3L).setUsername("caroline");
+        searchIndex.onUserChanged(new UserChangedEvent(3L));
+        assertEquals(List.of(3L), searchIndex.searchUsers("caroline", 1L, 10).stream().map(UserSearchHitDTO::getId).toList());
+
+        activities.remove(2L);
+        searchIndex.onActivityChanged(new ActivityChangedEvent(2L));
+        assertEquals(List.of(), activityIds("chess", 3L));
+    }
+
+    @Test
+    void changesDuringARebuildAreNotLost() {
+        duringRebuild = () -> {
+            activities.get(1L).setName("Go club");
+            searchIndex.onActivityChanged(new ActivityChangedEvent(1L));
+        };
+        searchIndex.rebuild();
+
+        assertEquals(List.of(), activityIds("chess", 1L));
+        assertEquals(List.of(1L), activityIds("go", 1L));
+    }
+
+    private List<Long> activityIds(String query, Long userId) {
+        return searchIndex.searchActivities(query, userId, 10).stream().map(ActivitySearchHitDTO::getId).toList();
+    }
+
+    private void activity(long id, String name, Long... memberIds) {
+        activities.put(id, new ActivityDTO(id, name, null, Activity.ActivityMode.FREE_INCREMENT, null, null));
+        members.put(id, List.of(memberIds));
+    }
+
+    private void user(long id, String username, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        users.put(id, user);
+    }
+
+    private Object activityQuery(String method, Object[] args) {
+        return switch (method) {
+            case "findAllParticipantPairs" -> {
+                List<Object[]> pairs = new ArrayList<>();
+                members.forEach((activityId, userIds) -> userIds.forEach(userId -> pairs.add(new Object[]{activityId, userId})));
+                yield pairs;
+            }
+            case "findAllActivityDTOs" -> copies(activities.values());
+            case "findActivityDTOById" -> Optional.ofNullable(activities.get((Long) args[0])).map(SearchIndexTests::copy);
+            case "findParticipantIds" -> members.getOrDefault((Long) args[0], List.of());
+            default -> throw new UnsupportedOperationException(method);
+        };
+    }
+
+    private Object userQuery(String method, Object[] args) {
+        return switch (method) {
+            case "findAllSearchRows" -> {
+                List<Object[]> rows = new ArrayList<>();
+                users.values().forEach(user -> rows.add(new Object[]{user.getId(), user.getUsername(), user.getEmail()}));
+                // Activities have been loaded by now
+                duringRebuild.run();
+                yield rows;
+            }
+            case "findById" -> Optional.ofNullable(users.get((Long) args[0]));
+            default -> throw new UnsupportedOperationException(method);
+        };
+    }
+
+    private static List<ActivityDTO> copies(Iterable<ActivityDTO> dtos) {
+        List<ActivityDTO> copies = new ArrayList<>();
+        dtos.forEach(dto -> copies.add(copy(dto)));
+        return copies;
+    }
+
+    private static ActivityDTO copy(ActivityDTO dto) {
+        return new ActivityDTO(dto.getId(), dto.getName(), dto.getDescription(), dto.getMode(), null, null);
+    }
+
+    private interface Query {
+        Object run(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Query query) {
+        InvocationHandler handler = (proxy, method, args) -> query.run(method.getName(), args);
+        return (T) Proxy.newProxyInstance(SearchIndexTests.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
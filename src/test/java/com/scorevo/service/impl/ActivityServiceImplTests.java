@@ -0,0 +1,181 @@
+package com.scorevo.service.impl;
+
+import com.scorevo.event.ActivityChangedEvent;
+import com.scorevo.model.Activity;
+import com.scorevo.model.User;
+import com.scorevo.payload.response.BulkParticipantResponse;
+import com.scorevo.repository.ActivityRepository;
+import org.h2.command.dml.Insert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityServiceImplTests {
+
+    private static final long ACTIVITY_ID = 1L;
+    private static final long OWNER_ID = 1L;
+
+    private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+    // Run by the participant queries, so a test can interleave a second request
+    private volatile Runnable afterCheck = () -> {
+    };
+    private volatile Runnable beforeReadBack = () -> {
+    };
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ActivityServiceImpl activityService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:participants;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE activity_participants (activity_id BIGINT, user_id BIGINT, " +
+                "PRIMARY KEY (activity_id, user_id))");
+        jdbcTemplate.execute("INSERT INTO users VALUES (1), (2), (3), (4)");
+        jdbcTemplate.update("INSERT INTO activity_participants VALUES (?, ?)", ACTIVITY_ID, OWNER_ID);
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        activityService = new ActivityServiceImpl(repository(), null, null, null, events::add, null, null, jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void skipsParticipantsAndUnknownUsers() {
+        BulkParticipantResponse response = addParticipants(List.of(3L, OWNER_ID, 999L, 3L, 2L));
+
+        assertEquals(List.of(3L, 2L), response.getAdded());
+        assertEquals(List.of(OWNER_ID, 999L), response.getSkipped());
+        assertEquals(List.of(OWNER_ID, 2L, 3L), participants());
+        assertEquals(List.of(new ActivityChangedEvent(ACTIVITY_ID)), events);
+    }
+
+    @Test
+    void nothingToAddPublishesNothing() {
+        BulkParticipantResponse response = addParticipants(List.of(OWNER_ID, 999L));
+
+        assertEquals(List.of(), response.getAdded());
+        assertEquals(List.of(OWNER_ID, 999L), response.getSkipped());
+        assertEquals(List.of(), events);
+    }
+
+    @Test
+    void overlappingBulkAddsOfTheSameUserBothSucceed() throws Exception {
+        Thread first = Thread.currentThread();
+        CountDownLatch secondInserted = new CountDownLatch(1);
+        CountDownLatch firstInserting = new CountDownLatch(1);
+        List<Future<BulkParticipantResponse>> second = new ArrayList<>();
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        try {
+            // Once the first request has checked, the second checks and inserts the same user. It commits
+            // only after the first has gone on to insert that user and is blocked on the uncommitted row
+            afterCheck = () -> {
+                afterCheck = () -> {
+                };
+                beforeReadBack = () -> {
+                    beforeReadBack = () -> {
+                    };
+                    secondInserted.countDown();
+                    await(firstInserting);
+                    // H2 retries a locked insert without parking the thread, so look for it in the stack
+                    while (Arrays.stream(first.getStackTrace())
+                            .noneMatch(frame -> frame.getClassName().equals(Insert.class.getName()))) {
+                        Thread.onSpinWait();
+                    }
+                };
+                second.add(threads.submit(() -> addParticipants(List.of(3L, 4L))));
+                await(secondInserted);
+                firstInserting.countDown();
+            };
+
+            BulkParticipantResponse response = addParticipants(List.of(3L, 999L));
+
+            assertEquals(List.of(3L, 4L), second.get(0).get(10, TimeUnit.SECONDS).getAdded());
+            assertEquals(List.of(3L), response.getAdded());
+            assertEquals(List.of(999L), response.getSkipped());
+            assertEquals(List.of(OWNER_ID, 3L, 4L), participants());
+        } finally {
+            threads.shutdownNow();
+            assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private BulkParticipantResponse addParticipants(List<Long> userIds) {
+        return transactionTemplate.execute(status -> activityService.addParticipants(ACTIVITY_ID, userIds, OWNER_ID));
+    }
+
+    private List<Long> participants() {
+        return jdbcTemplate.queryForList(
+                "SELECT user_id FROM activity_participants WHERE activity_id = ? ORDER BY user_id", Long.class, ACTIVITY_ID);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Answers the participant queries from the database, on the connection of the running transaction
+    private ActivityRepository repository() {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        return (ActivityRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ActivityRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> {
+                        User owner = new User();
+                        owner.setId(OWNER_ID);
+                        Activity activity = new Activity();
+                        activity.setId((Long) args[0]);
+                        activity.getParticipants().add(owner);
+                        yield Optional.of(activity);
+                    }
+                    case "findNonParticipantIds" -> {
+                        List<Long> ids = named.queryForList("SELECT u.id FROM users u WHERE u.id IN (:userIds) " +
+                                "AND NOT EXISTS (SELECT 1 FROM activity_participants p " +
+                                "WHERE p.activity_id = :activityId AND p.user_id = u.id) ORDER BY u.id",
+                                params(args), Long.class);
+                        afterCheck.run();
+                        yield ids;
+                    }
+                    case "findParticipantIdsIn" -> {
+                        beforeReadBack.run();
+                        yield named.queryForList("SELECT user_id FROM activity_participants " +
+                                "WHERE activity_id = :activityId AND user_id IN (:userIds)", params(args), Long.class);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Map<String, Object> params(Object[] args) {
+        return Map.of("activityId", args[0], "userIds", new ArrayList<>((Collection<?>) args[1]));
+    }
+}
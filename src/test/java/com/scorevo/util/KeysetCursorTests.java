@@ -0,0 +1,69 @@
+package com.scorevo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTests {
+
+    @Test
+    void roundTrips() {
+        KeysetCursor[] cursors = {
+                new KeysetCursor(LocalDateTime.of(2025, 3, 1, 12, 30), 42L),
+                new KeysetCursor(LocalDateTime.of(2025, 3, 1, 12, 30, 5, 123_456_789), Long.MAX_VALUE),
+                new KeysetCursor(LocalDateTime.of(1999, 12, 31, 23, 59, 59), -1L)
+        };
+        for (KeysetCursor cursor : cursors) {
+            String encoded = cursor.encode();
+            assertFalse(encoded.matches(".*[+/=].*"), "cursors are URL-safe");
+            assertEquals(cursor, KeysetCursor.decode(encoded));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "not base64!",
+            "%%%%",
+            "MjAyNS0wMy0wMVQxMjozMA=="
+    })
+    void rejectsMalformedCursors(String cursor) {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Missing or extra parts
+            "2025-03-01T12:30",
+            "2025-03-01T12:30|42|7",
+            "|42",
+            "2025-03-01T12:30|",
+            // Parts that do not parse
+            "2025-13-01T12:30|42",
+            "yesterday|42",
+            "2025-03-01T12:30|42; DROP TABLE scores",
+            "2025-03-01T12:30|9223372036854775808",
+            "2025-03-01T12:30|0x2A"
+    })
+    void rejectsTamperedCursors(String position) {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    @Test
+    void rejectsCursorWithACharacterChanged() {
+        char[] cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 12, 30), 42L).encode().toCharArray();
+        cursor[3] = '*';
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(new String(cursor)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.scorevo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntHashMapTests {
+
+    @Test
+    void matchesAHashMapThroughRehashes() {
+        // Starts small so it rehashes many times
+        LongIntHashMap map = new LongIntHashMap(1);
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(5);
+
+        for (int step = 0; step < 20000; step++) {
+            long key = random.nextInt(3) == 0 ? random.nextLong() : random.nextInt(-500, 5000);
+            int value = random.nextInt(-1000, 1000);
+            if (random.nextBoolean()) {
+                map.put(key, value);
+                reference.put(key, value);
+            } else {
+                assertEquals(reference.merge(key, value, Integer::sum), map.addTo(key, value));
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        assertEquals(reference, map.toMap());
+        reference.forEach((key, value) -> {
+            assertTrue(map.containsKey(key));
+            assertEquals(value, map.get(key, 0));
+        });
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value), "each key is visited once"));
+        assertEquals(reference, visited);
+    }
+
+    @Test
+    void absentKeys() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0));
+        assertEquals(-1, map.get(0, -1));
+
+        // Zero is a valid key and value, not a marker for an empty slot
+        map.put(0, 0);
+        assertTrue(map.containsKey(0));
+        assertEquals(0, map.get(0, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keysSharingLowBitsDoNotCollideIntoEachOther() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (int i = 0; i < 1000; i++) {
+            map.put((long) i << 32, i);
+            map.put(Long.MIN_VALUE + i, -i);
+        }
+
+        assertEquals(2000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get((long) i << 32, Integer.MIN_VALUE));
+            assertEquals(-i, map.get(Long.MIN_VALUE + i, Integer.MIN_VALUE));
+        }
+    }
+
+    @Test
+    void equalityIgnoresInsertionOrderAndCapacity() {
+        LongIntHashMap a = new LongIntHashMap(1);
+        LongIntHashMap b = new LongIntHashMap(1000);
+        for (long key = 0; key < 100; key++) {
+            a.put(key, (int) key * 2);
+            b.put(99 - key, (int) (99 - key) * 2);
+        }
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        b.addTo(7, 1);
+        assertNotEquals(a, b);
+    }
+}
@@ -0,0 +1,179 @@
+package com.scorevo.write;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreWriteExecutorTests {
+
+    private final FakeTransactionManager transactionManager = new FakeTransactionManager();
+    private final ScoreWriteExecutor executor = new ScoreWriteExecutor(transactionManager, 1, 64);
+
+    @Test
+    void writeCommitsInItsOwnTransaction() {
+        assertEquals("a", executor.execute(1L, write("a")));
+        executor.execute(1L, () -> transactionManager.write("b"));
+
+        assertEquals(List.of("a", "b"), transactionManager.committed);
+        assertEquals(List.of("commit 1", "commit 1"), transactionManager.transactions);
+    }
+
+    @Test
+    void nestedWriteJoinsTheRunningTransaction() {
+        String result = executor.execute(1L, () -> {
+            transactionManager.write("outer");
+            return executor.execute(1L, write("inner"));
+        });
+
+        assertEquals("inner", result);
+        assertEquals(List.of("outer", "inner"), transactionManager.committed);
+        assertEquals(List.of("commit 2"), transactionManager.transactions);
+    }
+
+    @Test
+    void writesQueuedBehindTheLockCommitTogether() throws Exception {
+        List<Future<String>> results = runBehindBlockedWrite(write("b"), write("c"), write("d"));
+
+        assertEquals(List.of("b", "c", "d"), values(results));
+        assertEquals(List.of("commit 1", "commit 3"), transactionManager.transactions);
+        assertEquals(List.of("a", "b", "c", "d"), sorted(transactionManager.committed));
+    }
+
+    @Test
+    void failedGroupIsReplayedOneWriteAtATime() throws Exception {
+        Supplier<String> failing = () -> {
+            transactionManager.write("c");
+            throw new IllegalStateException("no");
+        };
+        List<Future<String>> results = runBehindBlockedWrite(write("b"), failing, write("d"));
+
+        assertEquals("b", results.get(0).get());
+        Exception e = assertThrows(Exception.class, () -> results.get(1).get());
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals("d", results.get(2).get());
+
+        // The group is rolled back as a whole, then each write runs once more on its own
+        assertEquals(List.of("commit 1", "rollback"), transactionManager.transactions.subList(0, 2));
+        assertEquals(List.of("commit 1", "commit 1", "rollback"), sorted(transactionManager.transactions.subList(2, 5)));
+        assertEquals(5, transactionManager.transactions.size());
+        assertEquals(List.of("a", "b", "d"), sorted(transactionManager.committed));
+    }
+
+    // Holds the lock with a write of "a" until the given writes have queued behind it
+    @SafeVarargs
+    private List<Future<String>> runBehindBlockedWrite(Supplier<String>... writes) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(writes.length + 1);
+        try {
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<String> first = threads.submit(() -> executor.execute(1L, () -> {
+                running.countDown();
+                await(release);
+                return transactionManager.write("a");
+            }));
+            running.await();
+
+            List<Thread> waiting = Collections.synchronizedList(new ArrayList<>());
+            List<Future<String>> results = new ArrayList<>();
+            for (Supplier<String> write : writes) {
+                results.add(threads.submit(() -> {
+                    waiting.add(Thread.currentThread());
+                    return executor.execute(1L, write);
+                }));
+            }
+            // A thread parked on the lock has queued its write before taking it
+            while (waiting.size() < writes.length
+                    || !waiting.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+                Thread.sleep(1);
+            }
+
+            release.countDown();
+            assertEquals("a", first.get());
+            for (Future<String> result : results) {
+                try {
+                    result.get();
+                } catch (Exception ignored) {
+                    // Checked by the caller
+                }
+            }
+            return results;
+        } finally {
+            threads.shutdownNow();
+            assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private Supplier<String> write(String value) {
+        return () -> transactionManager.write(value);
+    }
+
+    private static List<String> values(List<Future<String>> results) throws Exception {
+        List<String> values = new ArrayList<>();
+        for (Future<String> result : results) {
+            values.add(result.get());
+        }
+        return values;
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Records the outcome of each transaction and how many writes a commit held; writes become visible on commit
+    private static final class FakeTransactionManager implements PlatformTransactionManager {
+        private final List<String> committed = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> transactions = Collections.synchronizedList(new ArrayList<>());
+        private final ThreadLocal<List<String>> pending = new ThreadLocal<>();
+
+        String write(String value) {
+            pending.get().add(value);
+            return value;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getPropagationBehavior());
+            pending.set(new ArrayList<>());
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            transactions.add("commit " + pending.get().size());
+            committed.addAll(pending.get());
+            pending.remove();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            transactions.add("rollback");
+            pending.remove();
+        }
+    }
+}